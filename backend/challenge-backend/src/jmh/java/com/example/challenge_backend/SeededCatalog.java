@@ -0,0 +1,112 @@
+package com.example.challenge_backend;
+
+import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.service.search.ProductSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sobe a aplicação com um banco H2 em memória populado com um catálogo de tamanho realista, para os benchmarks.
+ * Os dados são gerados com semente fixa, então duas execuções medem exatamente o mesmo catálogo.
+ * Nomes têm de 2 a 5 palavras e descrições de 20 a 60 palavras, próximos do limite de 100 e 400 caracteres do ProductDTO.
+ */
+public final class SeededCatalog {
+
+    /**
+     * Vocabulário usado nos nomes e descrições; também serve de fonte para os termos de busca.
+     */
+    public static final String[] WORDS = {
+            "cadeira", "mesa", "sofá", "cama", "armário", "estante", "luminária", "tapete", "cortina", "espelho",
+            "madeira", "metal", "vidro", "tecido", "couro", "branco", "preto", "cinza", "azul", "verde",
+            "pequeno", "grande", "dobrável", "ajustável", "confortável", "moderno", "clássico", "rústico", "compacto", "resistente",
+            "escritório", "sala", "quarto", "cozinha", "banheiro", "varanda", "jardim", "infantil", "gamer", "premium"
+    };
+
+    private static final int SAVE_CHUNK = 1000;
+
+    private SeededCatalog() {
+    }
+
+    /**
+     * Sobe a aplicação e cadastra a quantidade de produtos informada.
+     *
+     * @param products   a quantidade de produtos do catálogo
+     * @param web        se o servidor HTTP deve ser iniciado, em uma porta livre
+     * @param properties propriedades adicionais da aplicação
+     * @return o contexto da aplicação, que deve ser fechado ao final do benchmark
+     */
+    public static ConfigurableApplicationContext start(int products, boolean web, String... properties) {
+        String database = "bench" + System.nanoTime();
+        List<String> all = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database,
+                "app.images.storage-dir=" + tempDirectory(),
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "server.port=0"));
+        all.addAll(List.of(properties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeBackendApplication.class)
+                .web(web ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+                .properties(all.toArray(String[]::new))
+                .run();
+        seed(context.getBean(ProductRepository.class), products);
+        context.getBean(ProductSearchIndex.class).rebuild();
+        return context;
+    }
+
+    /**
+     * Gera um produto com dados realistas; a imagem é apenas uma referência, o arquivo não é gravado.
+     */
+    public static Product product(Random random, int index) {
+        Product product = new Product();
+        product.setName(words(random, 2 + random.nextInt(4), 100));
+        product.setPrice(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+        product.setDescription(words(random, 20 + random.nextInt(41), 400));
+        product.setImageHash("%064x".formatted(index));
+        product.setImageSize(64L * 1024);
+        product.setImageContentType("image/jpeg");
+        return product;
+    }
+
+    public static String words(Random random, int count, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.length() > maxLength ? text.substring(0, maxLength).trim() : text.toString();
+    }
+
+    private static void seed(ProductRepository repository, int products) {
+        Random random = new Random(42);
+        List<Product> chunk = new ArrayList<>(SAVE_CHUNK);
+        for (int i = 0; i < products; i++) {
+            chunk.add(product(random, i));
+            if (chunk.size() == SAVE_CHUNK) {
+                repository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        repository.saveAll(chunk);
+    }
+
+    private static String tempDirectory() {
+        try {
+            return Files.createTempDirectory("challenge-bench").toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
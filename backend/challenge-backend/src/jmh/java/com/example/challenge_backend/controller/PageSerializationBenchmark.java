@@ -0,0 +1,117 @@
+package com.example.challenge_backend.controller;
+
+import com.example.challenge_backend.SeededCatalog;
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de serializar uma página de produtos, como a listagem devolve, em JSON ou em CBOR (Accept: application/cbor).
+ * O modo "url" usa o ProductDTO atual, que traz só a URL da imagem; o modo "inline" reproduz o formato antigo,
+ * com o conteúdo da imagem embutido em cada produto (em Base64 no JSON, em bytes no CBOR).
+ * O tamanho da página serializada aparece no resultado como o contador secundário serialize:payloadBytes,
+ * para comparar os formatos também em tamanho; deserialize mede o custo do lado de quem consome a resposta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    @Param({"url", "inline"})
+    public String image;
+
+    @Param({"65536"})
+    public int imageBytes;
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+
+    private Page<?> page;
+
+    private byte[] serialized;
+
+    /**
+     * Tamanho da última página serializada. O valor é atribuído, e não somado, para que cada iteração informe o tamanho de uma página
+     * em vez do total de bytes produzidos.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+
+        public long payloadBytes;
+    }
+
+    /**
+     * Formato antigo do produto, com a imagem embutida.
+     */
+    public record InlineImageProductDTO(Long id, String name, BigDecimal price, String description, byte[] image) {
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = format.equals("cbor")
+                ? Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+        byte[] content = new byte[imageBytes];
+        random.nextBytes(content);
+
+        List<Object> products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = SeededCatalog.product(random, i);
+            long id = i + 1;
+            products.add(image.equals("inline")
+                    ? new InlineImageProductDTO(id, product.getName(), product.getPrice(), product.getDescription(), content)
+                    : new ProductDTO(id, product.getName(), product.getPrice(), product.getDescription(),
+                            ProductService.imageUrl(id, product.getImageHash()), 0L));
+        }
+        page = new PageImpl<>(products, PageRequest.of(0, pageSize, Sort.by("name")), 10_000);
+        serialized = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serialize(Payload payload) throws Exception {
+        byte[] bytes = objectMapper.writeValueAsBytes(page);
+        payload.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public JsonNode deserialize() throws Exception {
+        return objectMapper.readTree(serialized);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.challenge_backend.controller;
+
+import com.example.challenge_backend.SeededCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Vazão de respostas 404 do GET /api/products/{id}, como um robô que sonda IDs inexistentes.
+ * A requisição passa pelo DispatcherServlet, pelo serviço, pelo tratamento de exceções e pelo log, mas não pela rede,
+ * cujo custo esconderia o do caminho de "não encontrado".
+ * No cenário "repeated", os mesmos 100 IDs inexistentes são pedidos em rodízio; no "sequential", cada requisição pede um ID novo,
+ * que nunca está em cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductNotFoundBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"repeated", "sequential"})
+    public String probe;
+
+    private ConfigurableApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SeededCatalog.start(CATALOG_SIZE, true);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int missing() throws Exception {
+        long offset = probe.equals("repeated") ? next++ % 100 : next++;
+        int status = mockMvc.perform(get("/api/products/{id}", CATALOG_SIZE + 1 + offset)).andReturn().getResponse().getStatus();
+        if (status != 404) {
+            throw new IllegalStateException("Expected 404 but got " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.challenge_backend.controller;
+
+import com.example.challenge_backend.SeededCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de uma atualização de produto com imagem pelo PUT /api/products/{id}, passando pelo Tomcat, pelo parse do multipart,
+ * pela gravação da imagem e pela transação. As chamadas alternam entre duas imagens, então toda atualização troca a imagem do produto.
+ * O cenário "keep" envia a mesma imagem já gravada, que é reconhecida pelo hash e não troca nada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductUpdateBenchmark {
+
+    private static final String BOUNDARY = "----benchmark-boundary";
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"16384", "262144", "2097152"})
+    public int imageBytes;
+
+    @Param({"replace", "keep"})
+    public String image;
+
+    private ConfigurableApplicationContext context;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private URI uri;
+
+    private byte[][] bodies;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = SeededCatalog.start(CATALOG_SIZE, true);
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        uri = URI.create("http://localhost:" + port + "/api/products/1");
+
+        Random random = new Random(42);
+        byte[] first = new byte[imageBytes];
+        byte[] second = new byte[imageBytes];
+        random.nextBytes(first);
+        random.nextBytes(second);
+        bodies = image.equals("replace")
+                ? new byte[][]{multipart(first), multipart(second)}
+                : new byte[][]{multipart(first)};
+        send(bodies[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int update() throws Exception {
+        return send(bodies[next++ % bodies.length]);
+    }
+
+    private int send(byte[] body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException("Update failed with status " + status);
+        }
+        return status;
+    }
+
+    private static byte[] multipart(byte[] image) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(image.length + 1024);
+        field(body, "name", "Cadeira de escritório ergonômica");
+        field(body, "price", "899.90");
+        field(body, "description", "Cadeira de escritório com encosto de tela, braços ajustáveis e rodízios de nylon");
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"image.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(image);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) throws Exception {
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.challenge_backend.service;
+
+import com.example.challenge_backend.SeededCatalog;
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.dto.product.ProductSummary;
+import com.example.challenge_backend.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de converter um produto em ProductDTO, a partir da entidade e da projeção ProductSummary.
+ * Não depende do Spring: o mapeamento não usa os colaboradores do serviço.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    private final ProductService productService = new ProductService();
+
+    private Product product;
+
+    private ProductSummary summary;
+
+    @Setup
+    public void setUp() {
+        product = SeededCatalog.product(new Random(42), 1);
+        product.setId(12345L);
+        product.setVersion(3L);
+        summary = new ProductSummary(product.getId(), product.getName(), product.getPrice(), product.getDescription(),
+                product.getImageHash(), product.getVersion());
+    }
+
+    @Benchmark
+    public ProductDTO fromEntity() {
+        return productService.mapToDTO(product);
+    }
+
+    @Benchmark
+    public ProductDTO fromSummary() {
+        return ProductService.mapToDTO(summary);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.challenge_backend.service;
+
+import com.example.challenge_backend.SeededCatalog;
+import com.example.challenge_backend.config.CacheConfig;
+import com.example.challenge_backend.dto.product.ProductDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leituras do ProductService contra um catálogo populado no H2: a busca em catálogos de vários tamanhos
+ * e a listagem paginada em páginas cada vez mais profundas.
+ * O cache de páginas é esvaziado antes de cada chamada da listagem, para medir a consulta e não o acerto de cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductReadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SearchState {
+
+        @Param({"1000", "10000", "100000"})
+        public int catalogSize;
+
+        private ConfigurableApplicationContext context;
+
+        private ProductService productService;
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = SeededCatalog.start(catalogSize, false);
+            productService = context.getBean(ProductService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+
+        /**
+         * Alterna entre buscas de uma palavra, de duas palavras e de um prefixo, como enquanto o usuário digita.
+         */
+        String nextQuery() {
+            int i = next++;
+            String word = SeededCatalog.WORDS[i % SeededCatalog.WORDS.length];
+            String other = SeededCatalog.WORDS[(i * 7 + 3) % SeededCatalog.WORDS.length];
+            return switch (i % 3) {
+                case 0 -> word;
+                case 1 -> word + " " + other;
+                default -> word.substring(0, 3);
+            };
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ListState {
+
+        private static final int CATALOG_SIZE = 50_000;
+
+        public static final int PAGE_SIZE = 20;
+
+        @Param({"0", "100", "1000", "2400"})
+        public int page;
+
+        private ConfigurableApplicationContext context;
+
+        private ProductService productService;
+
+        private Cache pages;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = SeededCatalog.start(CATALOG_SIZE, false);
+            productService = context.getBean(ProductService.class);
+            pages = context.getBean(CacheManager.class).getCache(CacheConfig.PRODUCT_PAGES);
+        }
+
+        @Setup(Level.Invocation)
+        public void clearCache() {
+            pages.clear();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Page<ProductDTO> search(SearchState state) {
+        return state.productService.search(state.nextQuery(), 0, 10);
+    }
+
+    @Benchmark
+    public Page<ProductDTO> findAllByName(ListState state) {
+        return state.productService.findAll(state.page, ListState.PAGE_SIZE, "name");
+    }
+}
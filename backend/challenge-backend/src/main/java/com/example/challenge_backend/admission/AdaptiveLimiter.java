@@ -0,0 +1,178 @@
+package com.example.challenge_backend.admission;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limite de requisições simultâneas de uma classe de endpoint, ajustado pela latência (limitador por gradiente).
+ * Cada requisição concluída informa a sua latência, que alimenta duas médias móveis: uma curta, a latência recente,
+ * e uma longa, a latência de referência. Enquanto a recente fica abaixo de tolerance vezes a de referência, o limite cresce
+ * um pouco a cada requisição (raiz do limite, suavizado); quando passa disso, o banco ou a CPU estão saturados
+ * e o limite cai na proporção da razão entre as duas, até a metade (também suavizado). O limite fica sempre entre min-limit e max-limit.
+ * Requisições além do limite esperam em uma fila de queue-size posições por até max-wait; com a fila cheia, são recusadas na hora.
+ */
+public class AdaptiveLimiter {
+
+    /**
+     * Quantas requisições compõem, aproximadamente, cada média móvel.
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    private static final int LONG_WINDOW = 500;
+
+    /**
+     * Peso do novo limite calculado a cada requisição, para que uma requisição lenta isolada não derrube o limite.
+     */
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int queueSize;
+
+    private final long maxWaitNanos;
+
+    private final double tolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition available = lock.newCondition();
+
+    /**
+     * O limite, a latência recente e a de referência (em nanossegundos) e as contagens são protegidos pelo lock.
+     */
+    private double limit;
+
+    private double shortRtt;
+
+    private double longRtt;
+
+    private int inFlight;
+
+    private int waiting;
+
+    public AdaptiveLimiter(AdmissionProperties.LimiterClass limits) {
+        this.minLimit = limits.minLimit();
+        this.maxLimit = limits.maxLimit();
+        this.queueSize = limits.queueSize();
+        this.maxWaitNanos = limits.maxWait().toNanos();
+        this.tolerance = limits.tolerance();
+        this.limit = limits.initialLimit();
+    }
+
+    /**
+     * Obtém uma vaga, esperando na fila se o limite foi atingido.
+     * Quem obteve a vaga deve chamar {@link #release(long)} ao terminar.
+     *
+     * @return ADMITTED ou QUEUED (obtida depois de esperar na fila) com a vaga obtida, ou o motivo da recusa
+     */
+    public Admission acquire() {
+        lock.lock();
+        try {
+            // Com requisições na fila, quem chega entra atrás delas, mesmo que uma vaga tenha acabado de abrir
+            if (waiting == 0 && inFlight < (int) limit) {
+                inFlight++;
+                return Admission.ADMITTED;
+            }
+            if (waiting >= queueSize || maxWaitNanos == 0) {
+                return Admission.QUEUE_FULL;
+            }
+
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return Admission.TIMED_OUT;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Admission.QUEUED;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Admission.TIMED_OUT;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devolve a vaga e ajusta o limite com a latência da requisição.
+     *
+     * @param rttNanos quanto a requisição levou depois de admitida, sem contar a espera na fila
+     */
+    public void release(long rttNanos) {
+        lock.lock();
+        try {
+            int before = (int) limit;
+            inFlight--;
+            update(Math.max(rttNanos, 1));
+            int freed = (int) limit - before + 1;
+            if (freed > 1) {
+                available.signalAll();
+            } else if (freed == 1) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rtt) {
+        if (longRtt == 0) {
+            shortRtt = rtt;
+            longRtt = rtt;
+            return;
+        }
+        shortRtt += (rtt - shortRtt) / SHORT_WINDOW;
+        longRtt += (rtt - longRtt) / LONG_WINDOW;
+        // Quando a carga cai, a latência de referência ficaria alta por muito tempo; ela acompanha a recente mais depressa
+        if (longRtt > 2 * shortRtt) {
+            longRtt *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        // Com menos da metade das vagas em uso, a latência não diz nada sobre o limite, que não deve crescer à toa
+        if (gradient == 1.0 && inFlight < limit / 2) {
+            return;
+        }
+        double target = gradient < 1.0 ? limit * gradient : limit + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public enum Admission {
+        ADMITTED, QUEUED, QUEUE_FULL, TIMED_OUT
+    }
+}
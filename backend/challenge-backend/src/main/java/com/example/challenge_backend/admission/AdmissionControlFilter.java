@@ -0,0 +1,187 @@
+package com.example.challenge_backend.admission;
+
+import com.example.challenge_backend.dto.error.ErrorDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controle de admissão por classe de endpoint.
+ * Requisições de endpoints com classe (busca, uploads, páginas profundas da listagem) passam pelo AdaptiveLimiter da classe
+ * antes de chegar ao controlador; as demais, como a leitura de um produto pelo ID, passam direto e não disputam vagas com elas.
+ * Com a fila da classe cheia, a resposta é 429 na hora; depois de esperar max-wait sem vaga, 503. As duas trazem Retry-After.
+ * O filtro roda antes do DispatcherServlet, então um upload recusado não chega a ser lido nem gravado em disco.
+ * Métricas, por classe: http.server.admission.limit, .in-flight e .queued (gauges), http.server.admission.rejected
+ * (contador, por motivo) e http.server.admission.wait (tempo na fila das requisições que esperaram).
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    public static final String REJECTED_COUNTER = "http.server.admission.rejected";
+
+    public static final String WAIT_TIMER = "http.server.admission.wait";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * As rotas com classe, da mais específica para a menos, para que /api/products/search não seja tomada por /api/products/{id}.
+     */
+    private final List<Route> routes = new ArrayList<>();
+
+    private final Map<String, EndpointClass> classes = new HashMap<>();
+
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        properties.classes().forEach((name, limits) -> classes.put(name, new EndpointClass(name, limits, meterRegistry)));
+        properties.endpoints().forEach((uri, methods) -> {
+            methods.values().forEach(endpoint -> {
+                if (!classes.containsKey(endpoint.limiter())) {
+                    throw new IllegalArgumentException("Unknown admission class '" + endpoint.limiter() + "' for " + uri);
+                }
+            });
+            routes.add(new Route(PathPatternParser.defaultInstance.parse(uri), methods));
+        });
+        routes.sort(Comparator.comparing(Route::pattern, PathPattern.SPECIFICITY_COMPARATOR));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long arrived = System.nanoTime();
+        AdaptiveLimiter.Admission admission = endpointClass.limiter.acquire();
+        long admitted = System.nanoTime();
+        if (admission == AdaptiveLimiter.Admission.QUEUED || admission == AdaptiveLimiter.Admission.TIMED_OUT) {
+            endpointClass.waitTimer.record(admitted - arrived, TimeUnit.NANOSECONDS);
+        }
+        switch (admission) {
+            case QUEUE_FULL -> reject(request, response, endpointClass, HttpStatus.TOO_MANY_REQUESTS, endpointClass.queueFull);
+            case TIMED_OUT -> reject(request, response, endpointClass, HttpStatus.SERVICE_UNAVAILABLE, endpointClass.timedOut);
+            case ADMITTED, QUEUED -> {
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    endpointClass.limiter.release(System.nanoTime() - admitted);
+                }
+            }
+        }
+    }
+
+    /**
+     * A classe da requisição: a da rota mais específica que casa com o caminho, para o método da requisição.
+     */
+    private EndpointClass classify(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Route route : routes) {
+            if (route.pattern.matches(path)) {
+                AdmissionProperties.Endpoint endpoint = route.methods.get(request.getMethod().toLowerCase(Locale.ROOT));
+                if (endpoint == null || (endpoint.minOffset() != null && offset(request) < endpoint.minOffset())) {
+                    return null;
+                }
+                return classes.get(endpoint.limiter());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A posição do primeiro item pedido, pelos parâmetros page e size, com os mesmos padrões do controlador.
+     * Parâmetros inválidos valem zero: a requisição passa direto e o controlador responde 400.
+     */
+    private static long offset(HttpServletRequest request) {
+        try {
+            String page = request.getParameter("page");
+            String size = request.getParameter("size");
+            return (page == null ? 0 : Long.parseLong(page)) * (size == null ? 10 : Long.parseLong(size));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, EndpointClass endpointClass,
+                        HttpStatus status, Counter counter) throws IOException {
+        counter.increment();
+        logger.debug("Request rejected by admission class {} with status {}: {} {}",
+                endpointClass.name, status.value(), request.getMethod(), request.getRequestURI());
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, endpointClass.retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ErrorDetails errorDetails = new ErrorDetails(status.value(), "Server is busy, retry later", "uri=" + request.getRequestURI());
+        objectMapper.writeValue(response.getOutputStream(), errorDetails);
+    }
+
+    private record Route(PathPattern pattern, Map<String, AdmissionProperties.Endpoint> methods) {
+    }
+
+    /**
+     * O limitador de uma classe e as suas métricas, montadas uma vez.
+     */
+    private static final class EndpointClass {
+
+        private final String name;
+
+        private final AdaptiveLimiter limiter;
+
+        private final String retryAfter;
+
+        private final Counter queueFull;
+
+        private final Counter timedOut;
+
+        private final Timer waitTimer;
+
+        private EndpointClass(String name, AdmissionProperties.LimiterClass limits, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.limiter = new AdaptiveLimiter(limits);
+            // Retry-After é em segundos inteiros; arredonda para cima para não pedir uma nova tentativa antes da hora
+            this.retryAfter = Long.toString(Math.max(1, (limits.retryAfter().toMillis() + 999) / 1000));
+            this.queueFull = rejected(meterRegistry, "queue_full");
+            this.timedOut = rejected(meterRegistry, "timeout");
+            this.waitTimer = Timer.builder(WAIT_TIMER)
+                    .description("Time requests waited in the admission queue")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.admission.limit", limiter, AdaptiveLimiter::limit).tag("class", name).register(meterRegistry);
+            Gauge.builder("http.server.admission.in-flight", limiter, AdaptiveLimiter::inFlight).tag("class", name).register(meterRegistry);
+            Gauge.builder("http.server.admission.queued", limiter, AdaptiveLimiter::queued).tag("class", name).register(meterRegistry);
+        }
+
+        private Counter rejected(MeterRegistry meterRegistry, String reason) {
+            return Counter.builder(REJECTED_COUNTER)
+                    .description("Requests rejected by admission control")
+                    .tag("class", name)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
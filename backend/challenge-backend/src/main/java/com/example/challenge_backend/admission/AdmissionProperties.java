@@ -0,0 +1,64 @@
+package com.example.challenge_backend.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuração do controle de admissão (app.admission).
+ * Cada classe de endpoint tem um limite de requisições simultâneas, ajustado pela latência observada, e uma fila de espera limitada:
+ * app.admission.classes.search.max-limit=8
+ * Os endpoints são associados às classes por rota e método HTTP, como nos orçamentos de consultas:
+ * app.admission.endpoints.[/api/products/search].get.limiter=search
+ * Endpoints sem classe não passam pelo controle de admissão.
+ *
+ * @param classes   os limites de cada classe de endpoint, pelo nome da classe
+ * @param endpoints a classe de cada endpoint, por rota e, dentro dela, por método HTTP (em minúsculas)
+ */
+@ConfigurationProperties(prefix = "app.admission")
+public record AdmissionProperties(Map<String, LimiterClass> classes, Map<String, Map<String, Endpoint>> endpoints) {
+
+    public AdmissionProperties {
+        classes = classes == null ? Map.of() : classes;
+        endpoints = endpoints == null ? Map.of() : endpoints;
+    }
+
+    /**
+     * Limites de uma classe de endpoint.
+     *
+     * @param initialLimit o limite de requisições simultâneas ao iniciar
+     * @param minLimit     o menor limite a que a latência pode levar
+     * @param maxLimit     o maior limite a que a latência pode levar
+     * @param queueSize    quantas requisições podem esperar por uma vaga; as seguintes recebem 429 na hora
+     * @param maxWait      quanto uma requisição espera na fila antes de receber 503
+     * @param tolerance    quanto a latência recente pode passar da latência de referência antes que o limite seja reduzido
+     * @param retryAfter   o valor do cabeçalho Retry-After das respostas 429 e 503
+     */
+    public record LimiterClass(Integer initialLimit, Integer minLimit, Integer maxLimit, Integer queueSize,
+                               Duration maxWait, Double tolerance, Duration retryAfter) {
+
+        public LimiterClass {
+            minLimit = minLimit == null ? 1 : minLimit;
+            maxLimit = maxLimit == null ? 20 : maxLimit;
+            initialLimit = initialLimit == null ? minLimit : initialLimit;
+            queueSize = queueSize == null ? 0 : queueSize;
+            maxWait = maxWait == null ? Duration.ZERO : maxWait;
+            tolerance = tolerance == null ? 1.5 : tolerance;
+            retryAfter = retryAfter == null ? Duration.ofSeconds(1) : retryAfter;
+            if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("Admission limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+            }
+        }
+    }
+
+    /**
+     * A classe de um endpoint.
+     *
+     * @param limiter   o nome da classe
+     * @param minOffset se informado, só as requisições com page * size a partir desse valor entram na classe;
+     *                  as páginas iniciais de uma listagem são baratas (e costumam vir do cache) e passam direto
+     */
+    public record Endpoint(String limiter, Long minOffset) {
+    }
+}
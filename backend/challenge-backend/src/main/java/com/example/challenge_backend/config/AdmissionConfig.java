@@ -0,0 +1,33 @@
+package com.example.challenge_backend.config;
+
+import com.example.challenge_backend.admission.AdmissionControlFilter;
+import com.example.challenge_backend.admission.AdmissionProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuração do controle de admissão dos endpoints caros (busca, uploads, páginas profundas da listagem).
+ * Com app.admission.enabled=false, o filtro não é registrado e todas as requisições passam direto.
+ */
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            AdmissionProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(properties, meterRegistry, objectMapper));
+        // Fica logo depois do orçamento de consultas e das métricas HTTP, para que as recusas apareçam em http.server.requests,
+        // e antes dos demais filtros, para que uma requisição recusada custe o mínimo
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
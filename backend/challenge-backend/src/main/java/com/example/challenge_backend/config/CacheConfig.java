@@ -0,0 +1,95 @@
+package com.example.challenge_backend.config;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuração dos caches de leitura de produtos.
+ * Os caches usam Caffeine (política W-TinyLFU) e registram estatísticas de acerto, falha e remoção, publicadas em /actuator/metrics.
+ * O cache é aplicado antes da transação (order = 0), para que um acerto não chegue a abrir transação nem a pegar conexão do pool.
+ */
+@Configuration
+@EnableCaching(order = 0)
+public class CacheConfig {
+
+    /**
+     * Produtos por ID. Limitado pelo tamanho estimado em bytes das entradas, que não incluem o conteúdo das imagens.
+     * As alterações gravam o produto confirmado e a remoção deixa um marcador; o cache nunca troca uma versão por outra mais antiga
+     * (ver VersionedProductCache).
+     */
+    public static final String PRODUCTS = "products";
+
+    /**
+     * Páginas da listagem por (page, size, sort). Vive poucos segundos e é descartado inteiro a cada alteração de produto.
+     */
+    public static final String PRODUCT_PAGES = "productPages";
+
+    /**
+     * IDs procurados há pouco e que não existiam (cache negativo), para que sondagens repetidas de IDs inexistentes
+     * não cheguem ao banco. Vive poucos segundos e é descartado inteiro a cada criação de produto.
+     */
+    public static final String MISSING_PRODUCTS = "missingProducts";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.products.max-weight-bytes}") long productsMaxWeight,
+            @Value("${app.cache.products.expire-after-write}") Duration productsTtl,
+            @Value("${app.cache.pages.max-entries}") long pagesMaxEntries,
+            @Value("${app.cache.pages.expire-after-write}") Duration pagesTtl,
+            @Value("${app.cache.missing.max-entries:100000}") long missingMaxEntries,
+            @Value("${app.cache.missing.expire-after-write:2s}") Duration missingTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return name.equals(PRODUCTS) ? new VersionedProductCache(name, cache) : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        // Impede que um nome de cache desconhecido crie um cache sem limite
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumWeight(productsMaxWeight)
+                .weigher((Object key, Object value) -> estimateSize(value))
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PRODUCT_PAGES, Caffeine.newBuilder()
+                .maximumSize(pagesMaxEntries)
+                .expireAfterWrite(pagesTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(MISSING_PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(missingMaxEntries)
+                .expireAfterWrite(missingTtl)
+                .recordStats()
+                .build());
+        // As anotações de cache ficam fora da transação (order = 0), então os @CachePut e @CacheEvict já rodam depois do commit.
+        // O proxy vale para o uso direto do cache dentro de uma transação (cache negativo, remoção e alteração de preços em lote):
+        // inclusões e remoções feitas ali só são aplicadas depois do commit, e são descartadas no rollback
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /**
+     * Estima a memória ocupada por um produto em cache: cabeçalhos dos objetos mais dois bytes por caractere das strings.
+     */
+    private static int estimateSize(Object value) {
+        if (value instanceof ProductDTO product) {
+            return 128 + 2 * (length(product.name()) + length(product.description()) + length(product.imageUrl()));
+        }
+        return 128;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.challenge_backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Formatos de resposta da API além do JSON.
+ * Clientes que pedem Accept: application/cbor recebem os mesmos DTOs em CBOR, uma codificação binária do modelo do JSON:
+ * números (inclusive os preços em BigDecimal) e byte[] vão em binário, sem conversão para texto ou Base64.
+ * O JSON continua sendo o padrão, inclusive para Accept: *&#47;*, porque o conversor de JSON vem antes na negociação.
+ */
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    public MessageConverterConfig(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        this.objectMapperBuilder = objectMapperBuilder;
+    }
+
+    /**
+     * Troca o conversor CBOR padrão do Spring MVC por um que usa a mesma configuração do ObjectMapper do JSON
+     * (módulos, datas, propriedades spring.jackson.*), para que os dois formatos tragam exatamente os mesmos campos.
+     * A troca é feita na mesma posição, depois do JSON, e só no Spring MVC: registrado como bean, o conversor iria para o início
+     * da lista dos RestTemplate criados pelo RestTemplateBuilder, que passariam a enviar em CBOR até as partes de um multipart.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                ? new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build())
+                : converter);
+    }
+}
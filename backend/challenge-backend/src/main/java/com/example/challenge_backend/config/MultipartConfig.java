@@ -0,0 +1,49 @@
+package com.example.challenge_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.DispatcherServlet;
+
+/**
+ * Limites de upload por rota.
+ * Os limites de spring.servlet.multipart valem para todas as rotas e ficam próximos de app.images.max-size,
+ * para que um upload qualquer não ocupe o disco nem a banda com gigabytes.
+ * A importação em massa (POST /api/products/bulk) recebe arquivos bem maiores; ela é atendida por um segundo DispatcherServlet,
+ * com os mesmos controladores, cujo MultipartConfigElement usa app.import.max-file-size e app.import.max-request-size.
+ * O Tomcat aplica os limites do servlet que atende a requisição, então só essa rota aceita os arquivos grandes.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MultipartConfig {
+
+    public static final String IMPORT_PATH = "/api/products/bulk";
+
+    @Bean
+    public ServletRegistrationBean<DispatcherServlet> importDispatcherServlet(
+            ApplicationContext applicationContext,
+            MultipartProperties multipartProperties,
+            @Value("${app.import.max-file-size:2GB}") DataSize maxFileSize,
+            @Value("${app.import.max-request-size:2GB}") DataSize maxRequestSize) {
+        // Não é um bean: um segundo DispatcherServlet no contexto desligaria o DispatcherServlet padrão do Spring Boot
+        DispatcherServlet servlet = new DispatcherServlet();
+        servlet.setApplicationContext(applicationContext);
+
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setLocation(multipartProperties.getLocation());
+        factory.setFileSizeThreshold(multipartProperties.getFileSizeThreshold());
+        factory.setMaxFileSize(maxFileSize);
+        factory.setMaxRequestSize(maxRequestSize);
+
+        ServletRegistrationBean<DispatcherServlet> registration = new ServletRegistrationBean<>(servlet, IMPORT_PATH);
+        registration.setName("importDispatcherServlet");
+        registration.setMultipartConfig(factory.createMultipartConfig());
+        return registration;
+    }
+}
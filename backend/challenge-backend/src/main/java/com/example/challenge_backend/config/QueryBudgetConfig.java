@@ -0,0 +1,47 @@
+package com.example.challenge_backend.config;
+
+import com.example.challenge_backend.metrics.QueryBudgetFilter;
+import com.example.challenge_backend.metrics.QueryBudgetProperties;
+import com.example.challenge_backend.metrics.QueryCountingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração do orçamento de consultas por requisição.
+ * O DataSource é envolvido para contar comandos, linhas e bytes de LOB, e um filtro confere as contagens de cada requisição
+ * com o orçamento do endpoint. Com app.query-budget.mode=off, nada disso é registrado e o DataSource fica intacto.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryBudgetProperties.class)
+@ConditionalOnExpression("'${app.query-budget.mode:warn}'.toLowerCase() != 'off'")
+public class QueryBudgetConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(new QueryBudgetFilter(properties, meterRegistry));
+        // Fica por fora dos demais filtros, para contar tudo o que a requisição fizer no banco
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
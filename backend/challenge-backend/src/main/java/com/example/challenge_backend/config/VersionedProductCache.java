@@ -0,0 +1,105 @@
+package com.example.challenge_backend.config;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache de produtos por ID que nunca troca uma versão mais nova de um produto por uma mais antiga.
+ * Uma leitura pode começar antes do commit de uma alteração e terminar depois dele; sem essa regra, ela gravaria no cache
+ * o produto anterior, que seria servido (e respondido com 304 a um If-None-Match antigo) até o fim do expire-after-write.
+ * As alterações gravam no cache o produto confirmado, em vez de removê-lo, e uma leitura atrasada com a versão anterior é descartada.
+ * A remoção (evict) significa que o produto deixou de existir: no lugar dele fica um marcador, invisível nas leituras,
+ * que impede uma leitura atrasada de devolvê-lo ao cache. O marcador expira com o mesmo prazo das entradas.
+ */
+class VersionedProductCache extends CaffeineCache {
+
+    /**
+     * Marcador de produto removido.
+     */
+    static final Object DELETED = new Object();
+
+    private final ConcurrentMap<Object, Object> entries;
+
+    VersionedProductCache(String name, Cache<Object, Object> cache) {
+        super(name, cache, false);
+        this.entries = cache.asMap();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = super.lookup(key);
+        return value == DELETED ? null : value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            @SuppressWarnings("unchecked")
+            T cached = (T) value;
+            return cached;
+        }
+        try {
+            T loaded = valueLoader.call();
+            put(key, loaded);
+            return loaded;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        putIfNewer(key, toStoreValue(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        Object current = entries.putIfAbsent(key, toStoreValue(value));
+        return current == null || current == DELETED ? null : toValueWrapper(current);
+    }
+
+    @Override
+    public void evict(Object key) {
+        entries.put(key, DELETED);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Object previous = entries.put(key, DELETED);
+        return previous != null && previous != DELETED;
+    }
+
+    /**
+     * Grava o valor se não houver entrada para a chave ou se ele não for mais antigo que o atual.
+     * As trocas são condicionais ao valor lido, então duas gravações simultâneas não se sobrepõem fora de ordem.
+     */
+    private void putIfNewer(Object key, Object value) {
+        while (true) {
+            Object current = entries.get(key);
+            if (current == null) {
+                if (entries.putIfAbsent(key, value) == null) {
+                    return;
+                }
+            } else if (!replaces(value, current)) {
+                return;
+            } else if (entries.replace(key, current, value)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean replaces(Object value, Object current) {
+        if (current == DELETED) {
+            return false;
+        }
+        if (value instanceof ProductDTO product && current instanceof ProductDTO cached) {
+            return cached.version() == null || (product.version() != null && product.version() >= cached.version());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.challenge_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Configuração do modo de execução em virtual threads, ativado por spring.threads.virtual.enabled=true (perfil Spring "virtual").
+ * Com o modo ativo e a aplicação rodando em Java 21 (perfil Maven java21), o Spring Boot passa a atender as requisições do Tomcat
+ * em virtual threads, e as chamadas ao ProductService rodam na mesma virtual thread da requisição.
+ * Como virtual threads são baratas, milhares de requisições podem chegar ao banco ao mesmo tempo; o limitador abaixo
+ * coloca um semáforo na frente do pool do Hikari, para que as requisições excedentes esperem sem ocupar o pool nem travar threads de plataforma.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor databaseConcurrencyLimiter(
+            @Value("${app.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${app.db.acquire-timeout:5s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * DataSource que limita quantas conexões podem estar em uso ao mesmo tempo.
+     * A permissão é obtida antes de pedir a conexão ao pool e devolvida quando a conexão é fechada.
+     * O semáforo é justo, então as requisições são atendidas na ordem de chegada.
+     */
+    static class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+
+        private final long acquireTimeoutNanos;
+
+        ConcurrencyLimitedDataSource(DataSource target, int maxConcurrency, Duration acquireTimeout) {
+            super(target);
+            this.permits = new Semaphore(maxConcurrency, true);
+            this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releasingOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releasingOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new SQLTransientConnectionException("Database concurrency limit reached, timed out waiting for a connection");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+            }
+        }
+
+        /**
+         * Envolve a conexão para devolver a permissão no primeiro close, mesmo que ele seja chamado mais de uma vez.
+         */
+        private Connection releasingOnClose(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                permits.release();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
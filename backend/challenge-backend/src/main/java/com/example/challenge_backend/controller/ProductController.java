@@ -1,20 +1,50 @@
 package com.example.challenge_backend.controller;
 
+import com.example.challenge_backend.dto.batch.ProductBatchDTO;
+import com.example.challenge_backend.dto.batch.ProductBatchDeleteDTO;
+import com.example.challenge_backend.dto.batch.ProductIdsDTO;
+import com.example.challenge_backend.dto.batch.ProductPricesDTO;
+import com.example.challenge_backend.dto.image.ImageDTO;
+import com.example.challenge_backend.dto.importer.ProductImportResultDTO;
 import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.dto.product.ProductFilter;
+import com.example.challenge_backend.dto.product.ProductPatchDTO;
+import com.example.challenge_backend.dto.product.ProductSliceDTO;
 import com.example.challenge_backend.dto.response.ResponseProductDTO;
+import com.example.challenge_backend.exception.ResourceNotFoundException;
 import com.example.challenge_backend.service.ProductService;
+import com.example.challenge_backend.service.changes.ProductChangeFeed;
+import com.example.challenge_backend.service.export.ContentCoding;
+import com.example.challenge_backend.service.export.ExportFormat;
+import com.example.challenge_backend.service.export.ProductExportService;
+import com.example.challenge_backend.service.importer.ProductImportService;
+import com.example.challenge_backend.service.storage.ImageStorageService;
+import com.example.challenge_backend.service.storage.ImageVariantService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
-import java.util.Arrays;
-import java.util.List;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 /**
  * Controlador responsável pela gestão dos produtos.
@@ -26,9 +56,31 @@ import java.util.List;
 @Validated
 public class ProductController {
 
+    /**
+     * Parâmetros do hash FNV-1a de 64 bits usado no ETag das páginas.
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
     /**
      * Cria um novo produto.
      *
@@ -43,24 +95,136 @@ public class ProductController {
             @RequestParam("name") String name,
             @RequestParam("price") BigDecimal price,
             @RequestParam("description") String description,
-            @RequestParam("image") MultipartFile image) throws IOException {
+            @RequestParam("image") MultipartFile image) {
 
-        ProductDTO productDTO = convertToProductDTO(name, price, description, image);
+        ProductDTO productDTO = convertToProductDTO(name, price, description);
         ProductDTO createdProduct = productService.create(productDTO, image);
         URI location = URI.create("/api/products/" + createdProduct.id());
         return ResponseEntity.created(location).body(createdProduct);
     }
 
+    /**
+     * Importa produtos em lote.
+     * Linhas inválidas não interrompem a importação; o resultado traz os erros por linha.
+     *
+     * @param file   o arquivo com os produtos, em NDJSON ou CSV (name,price,description,image)
+     * @param images o zip com as imagens, referenciadas pelo caminho na coluna image
+     * @param format o formato do arquivo (ndjson ou csv); quando ausente, é deduzido pela extensão
+     * @return resposta com o resultado da importação
+     */
+    @PostMapping(value = "/products/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "images", required = false) MultipartFile images,
+            @RequestParam(value = "format", required = false) String format) {
+        ProductImportResultDTO result = productImportService.importProducts(file, images, format);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Exporta o catálogo inteiro, produto a produto, sem montar a lista em memória.
+     * A resposta é comprimida com gzip ou deflate conforme o Accept-Encoding.
+     *
+     * @param format         o formato da exportação: ndjson (um produto por linha) ou json (um array)
+     * @param acceptEncoding as codificações aceitas pelo cliente
+     * @param response       a resposta, escrita diretamente à medida que os produtos são lidos
+     */
+    @GetMapping("/products/export")
+    public void export(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = productExportService.formatOf(format);
+        ContentCoding coding = ContentCoding.negotiate(acceptEncoding);
+
+        response.setContentType(exportFormat.mediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (coding != ContentCoding.IDENTITY) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, coding.token());
+        }
+        try (OutputStream body = coding.wrap(response.getOutputStream())) {
+            productExportService.export(exportFormat, body);
+        }
+    }
+
     /**
      * Busca um produto pelo ID.
+     * A resposta traz um ETag com o id e a versão do produto. Se o cliente já tiver essa versão (If-None-Match),
+     * a resposta é 304 sem corpo, e o produto nem chega a ser carregado. Sem If-None-Match, o produto é lido direto,
+     * em uma única consulta. Se o produto não existir, a resposta é 404.
      *
-     * @param id o ID do produto
+     * @param id      o ID do produto
+     * @param request a requisição, usada para verificar o If-None-Match
      * @return resposta com o produto encontrado
      */
     @GetMapping("/products/{id}")
-    public ResponseEntity<ProductDTO> findById(@PathVariable Long id) {
-        ProductDTO product = productService.findById(id);
-        return ResponseEntity.ok(product);
+    public ResponseEntity<ProductDTO> findById(@PathVariable Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Long version = productService.findVersion(id).orElseThrow(() -> ResourceNotFoundException.product(id));
+            if (request.checkNotModified(etagOf(id, version))) {
+                return null;
+            }
+        }
+        ProductDTO product = productService.findById(id).orElseThrow(() -> ResourceNotFoundException.product(id));
+        return ResponseEntity.ok()
+                .eTag(etagOf(product.id(), product.version()))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(product);
+    }
+
+    /**
+     * Busca a imagem de um produto.
+     * A resposta traz ETag com o hash da imagem e aceita requisições condicionais e parciais (Range).
+     * Quando a URL traz a versão atual da imagem, a resposta pode ficar em cache indefinidamente.
+     * Com o parâmetro w, a resposta é a versão redimensionada na menor largura disponível que seja maior ou igual a w;
+     * se a original já for estreita o bastante, ela é devolvida. Se a versão ainda não foi gerada, a original é devolvida,
+     * sem cache, e a geração é agendada em segundo plano.
+     *
+     * @param id      o ID do produto
+     * @param version o prefixo do hash informado na URL da imagem
+     * @param width   a largura desejada, em pixels
+     * @return resposta com o conteúdo da imagem
+     */
+    @GetMapping("/products/{id}/image")
+    public ResponseEntity<Resource> findImage(
+            @PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestParam(value = "w", required = false) Integer width) {
+        ImageDTO image = productService.findImage(id).orElseThrow(() -> ResourceNotFoundException.product(id));
+        Resource resource = null;
+        String etag = image.hash();
+        boolean pending = false;
+        if (width != null) {
+            OptionalInt variantWidth = imageVariantService.widthFor(width);
+            if (variantWidth.isPresent()) {
+                Optional<Resource> variant = imageVariantService.variant(image.hash(), image.contentType(), variantWidth.getAsInt());
+                if (variant.isPresent()) {
+                    resource = variant.get();
+                    etag = image.hash() + "-" + variantWidth.getAsInt();
+                } else {
+                    pending = !imageVariantService.servesOriginal(image.hash(), variantWidth.getAsInt());
+                }
+            }
+        }
+        if (resource == null) {
+            resource = imageStorageService.load(image.hash());
+        }
+
+        boolean versioned = version != null
+                && version.length() >= ProductService.IMAGE_VERSION_LENGTH
+                && image.hash().startsWith(version);
+        // Enquanto a versão é gerada, a original servida no lugar dela não pode ficar em cache como definitiva
+        CacheControl cacheControl = versioned && !pending
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.parseMediaType(image.contentType()))
+                .body(resource);
     }
 
     /**
@@ -68,7 +232,7 @@ public class ProductController {
      *
      * @param page o número da página
      * @param size o número de itens por página
-     * @param sort o critério de ordenação
+     * @param sort o critério de ordenação: name, price ou id, opcionalmente seguido de ,asc ou ,desc
      * @return resposta com a lista de produtos
      */
     @GetMapping("/products")
@@ -77,6 +241,64 @@ public class ProductController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "name") String sort) {
         Page<ProductDTO> products = productService.findAll(page, size, sort);
+        return conditionalOk(products);
+    }
+
+    /**
+     * Busca produtos com paginação por cursor.
+     * É escolhido quando a requisição traz o parâmetro after; um after vazio começa do início da listagem.
+     * Indicado para percorrer o catálogo inteiro, pois o custo de cada fatia não cresce com a posição.
+     *
+     * @param after o cursor devolvido pela fatia anterior
+     * @param size  o número de itens da fatia
+     * @param sort  o critério de ordenação (name, price ou id)
+     * @return resposta com a fatia de produtos e o cursor da próxima
+     */
+    @GetMapping(value = "/products", params = "after")
+    public ResponseEntity<ProductSliceDTO> findSlice(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sort) {
+        ProductSliceDTO products = productService.findSlice(after, size, sort);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Feed das alterações do catálogo, em Server-Sent Events.
+     * Cada criação, atualização ou remoção gera um evento created, updated ou deleted com o produto alterado, e o cliente aplica
+     * a alteração na página que já tem em vez de buscá-la de novo. Ao reconectar, o EventSource envia o Last-Event-ID e recebe
+     * só o que perdeu; se ficou para trás demais, recebe um evento resync e recarrega a listagem.
+     *
+     * @param lastEventId o id do último evento recebido, enviado pelo navegador ao reconectar
+     * @return o emitter da conexão
+     */
+    @GetMapping(value = "/products/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return productChangeFeed.subscribe(lastEventId);
+    }
+
+    /**
+     * Consulta produtos pelo começo do nome e por faixa de preço, com paginação por cursor.
+     * A ordenação precisa ser por uma coluna filtrada (name com o filtro de nome, price com a faixa de preço);
+     * combinações que nenhum índice atende são recusadas com 400.
+     *
+     * @param name     o começo do nome, sensível a maiúsculas
+     * @param minPrice o preço mínimo, inclusivo
+     * @param maxPrice o preço máximo, inclusivo
+     * @param sort     o critério de ordenação (name, price ou id); quando ausente, a coluna filtrada
+     * @param after    o cursor devolvido pela fatia anterior, com os mesmos filtros
+     * @param size     o número de itens da fatia
+     * @return resposta com a fatia de produtos e o cursor da próxima
+     */
+    @GetMapping("/products/query")
+    public ResponseEntity<ProductSliceDTO> query(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "10") int size) {
+        ProductSliceDTO products = productService.query(new ProductFilter(name, minPrice, maxPrice), sort, after, size);
         return ResponseEntity.ok(products);
     }
 
@@ -84,6 +306,7 @@ public class ProductController {
      * Atualiza um produto existente.
      *
      * @param id         o ID do produto a ser atualizado
+     * @param image      a nova imagem do produto; quando ausente, a imagem atual é mantida
      * @return resposta com o produto atualizado e mensagem de sucesso
      */
     @PutMapping("/products/{id}")
@@ -92,19 +315,63 @@ public class ProductController {
             @RequestParam("name") String name,
             @RequestParam("price") BigDecimal price,
             @RequestParam("description") String description,
-            @RequestParam(value = "image", required = false) MultipartFile image) throws IOException {
+            @RequestParam(value = "image", required = false) MultipartFile image) {
 
-        ProductDTO existingProduct = productService.findById(id);
-        byte[] imageBytes = existingProduct.image();
-
-        if (image != null && !Arrays.equals(image.getBytes(), imageBytes)) {
-            imageBytes = image.getBytes();
+        if (image != null && image.isEmpty()) {
+            image = null;
         }
 
-        ProductDTO productDTO = new ProductDTO(id, name, price, description, imageBytes);
-        ProductDTO updatedProduct = productService.update(id, productDTO, image);
+        ProductDTO productDTO = new ProductDTO(id, name, price, description, null, null);
+        ProductDTO updatedProduct = productService.update(id, productDTO, image)
+                .orElseThrow(() -> ResourceNotFoundException.product(id));
         return ResponseEntity.ok(new ResponseProductDTO(updatedProduct, "Produto atualizado com sucesso"));
     }
+
+    /**
+     * Altera parcialmente um produto, com um corpo JSON contendo apenas os campos a alterar.
+     * O If-Match é obrigatório e deve trazer o ETag recebido na leitura do produto; a resposta traz o novo ETag.
+     *
+     * @param id      o ID do produto a ser alterado
+     * @param patch   os campos a alterar
+     * @param ifMatch o ETag da versão que o cliente leu
+     * @return resposta com o produto alterado e mensagem de sucesso
+     */
+    @PatchMapping(value = "/products/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<ResponseProductDTO> patch(
+            @PathVariable("id") Long id,
+            @RequestBody ProductPatchDTO patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return patched(productService.patch(id, patch, null, expectedVersion(id, ifMatch))
+                .orElseThrow(() -> ResourceNotFoundException.product(id)));
+    }
+
+    /**
+     * Altera parcialmente um produto por formulário, o que permite trocar também a imagem.
+     * Os campos ausentes são mantidos, inclusive a imagem.
+     *
+     * @param id      o ID do produto a ser alterado
+     * @param image   a nova imagem do produto; quando ausente, a imagem atual é mantida
+     * @param ifMatch o ETag da versão que o cliente leu
+     * @return resposta com o produto alterado e mensagem de sucesso
+     */
+    @PatchMapping(value = "/products/{id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ResponseProductDTO> patch(
+            @PathVariable("id") Long id,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "price", required = false) BigDecimal price,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestParam(value = "image", required = false) MultipartFile image,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+        if (image != null && image.isEmpty()) {
+            image = null;
+        }
+
+        ProductPatchDTO patch = new ProductPatchDTO(name, price, description);
+        return patched(productService.patch(id, patch, image, expectedVersion(id, ifMatch))
+                .orElseThrow(() -> ResourceNotFoundException.product(id)));
+    }
+
     /**
      * Deleta um produto pelo ID.
      *
@@ -113,29 +380,144 @@ public class ProductController {
      */
     @DeleteMapping("/products/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
-        productService.delete(id);
+        if (!productService.delete(id)) {
+            throw ResourceNotFoundException.product(id);
+        }
         return ResponseEntity.noContent().build();
     }
 
     /**
-     * Busca produtos pelo nome.
+     * Busca vários produtos pelo ID em uma única requisição e uma única consulta.
+     *
+     * @param request os IDs dos produtos, no máximo 500
+     * @return resposta com os produtos na ordem dos IDs e os IDs que não existem
+     */
+    @PostMapping("/products/batch-get")
+    public ResponseEntity<ProductBatchDTO> findAllById(@Valid @RequestBody ProductIdsDTO request) {
+        return ResponseEntity.ok(productService.findAllById(request.ids()));
+    }
+
+    /**
+     * Remove vários produtos em uma única transação.
+     *
+     * @param request os IDs dos produtos, no máximo 500
+     * @return resposta com os IDs removidos e os que não existem
+     */
+    @PostMapping("/products/batch-delete")
+    public ResponseEntity<ProductBatchDeleteDTO> deleteAll(@Valid @RequestBody ProductIdsDTO request) {
+        return ResponseEntity.ok(productService.deleteAll(request.ids()));
+    }
+
+    /**
+     * Altera o preço de vários produtos em uma única transação.
+     *
+     * @param request os novos preços, no máximo 500
+     * @return resposta com os produtos alterados, na ordem pedida, e os IDs que não existem
+     */
+    @PostMapping("/products/batch-price")
+    public ResponseEntity<ProductBatchDTO> updatePrices(@Valid @RequestBody ProductPricesDTO request) {
+        return ResponseEntity.ok(productService.updatePrices(request.prices()));
+    }
+
+    /**
+     * Busca produtos pelo nome e pela descrição, ordenados por relevância.
      *
      * @param query a string de pesquisa
-     * @return resposta com a lista de produtos que correspondem à pesquisa
+     * @param page  o número da página
+     * @param size  o número de itens por página
+     * @return resposta com a página de produtos que correspondem à pesquisa
      */
     @GetMapping("/products/search")
-    public ResponseEntity<List<ProductDTO>> search(@RequestParam String query) {
-        List<ProductDTO> products = productService.search(query);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<Page<ProductDTO>> search(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        Page<ProductDTO> products = productService.search(query, page, size);
+        return conditionalOk(products);
+    }
+
+    /**
+     * Monta a resposta de uma página de produtos com ETag.
+     * Quando o ETag coincide com o If-None-Match, o Spring responde 304 sem serializar a página.
+     */
+    private static ResponseEntity<Page<ProductDTO>> conditionalOk(Page<ProductDTO> products) {
+        return ResponseEntity.ok()
+                .eTag(etagOf(products))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(products);
+    }
+
+    private static ResponseEntity<ResponseProductDTO> patched(ProductDTO product) {
+        return ResponseEntity.ok()
+                .eTag(etagOf(product.id(), product.version()))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(new ResponseProductDTO(product, "Produto atualizado com sucesso"));
+    }
+
+    private static String etagOf(Long id, Long version) {
+        return id + "-" + version;
+    }
+
+    /**
+     * Extrai a versão esperada do If-Match, que deve ser o ETag do produto ("id-versão").
+     * Sem o cabeçalho a resposta é 428, para que uma alteração nunca sobrescreva outra sem que o cliente perceba;
+     * um ETag de outro produto ou mal formado nunca coincide com a versão atual e resulta em 412.
+     */
+    private static long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, "If-Match header is required");
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        if (etag.length() >= 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            etag = etag.substring(1, etag.length() - 1);
+        }
+        String prefix = id + "-";
+        if (etag.startsWith(prefix)) {
+            try {
+                return Long.parseLong(etag.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                // Tratado abaixo, como qualquer ETag que não é deste produto
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not match product " + id);
+    }
+
+    /**
+     * Gera o ETag de uma página a partir da posição, do total e do id e versão de cada produto, com o hash FNV-1a de 64 bits.
+     * Qualquer alteração em um produto da página muda a sua versão e, portanto, o ETag.
+     * O ETag é fraco porque a página pode ir comprimida ou não; o Tomcat não comprime respostas com ETag forte.
+     */
+    private static String etagOf(Page<ProductDTO> products) {
+        long hash = fnv(FNV_OFFSET, products.getNumber());
+        hash = fnv(hash, products.getSize());
+        hash = fnv(hash, products.getTotalElements());
+        for (ProductDTO product : products.getContent()) {
+            hash = fnv(hash, product.id());
+            hash = fnv(hash, product.version() == null ? -1 : product.version());
+        }
+        return "W/\"p-" + Long.toHexString(hash) + "\"";
     }
 
-    private ProductDTO convertToProductDTO(String name, BigDecimal price, String description, MultipartFile image) throws IOException {
+    private static long fnv(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private ProductDTO convertToProductDTO(String name, BigDecimal price, String description) {
         return new ProductDTO(
                 null,
                 name,
                 price,
                 description,
-                image.getBytes()
+                null,
+                null
         );
     }
 }
\ No newline at end of file
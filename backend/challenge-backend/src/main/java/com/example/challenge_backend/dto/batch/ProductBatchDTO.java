@@ -0,0 +1,12 @@
+package com.example.challenge_backend.dto.batch;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+
+import java.util.List;
+
+/**
+ * Resultado de uma leitura ou alteração em lote: os produtos, na ordem em que os ids foram pedidos,
+ * e os ids que não correspondem a nenhum produto.
+ */
+public record ProductBatchDTO(List<ProductDTO> products, List<Long> missing) {
+}
@@ -0,0 +1,9 @@
+package com.example.challenge_backend.dto.batch;
+
+import java.util.List;
+
+/**
+ * Resultado de uma remoção em lote: os ids removidos e os que não correspondem a nenhum produto.
+ */
+public record ProductBatchDeleteDTO(List<Long> deleted, List<Long> missing) {
+}
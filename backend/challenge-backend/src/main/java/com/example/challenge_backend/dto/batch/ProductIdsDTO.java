@@ -0,0 +1,25 @@
+package com.example.challenge_backend.dto.batch;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Lista de ids de uma operação em lote (leitura ou remoção).
+ * Ids repetidos são considerados uma única vez.
+ *
+ * @param ids os ids dos produtos, no máximo MAX_SIZE
+ */
+public record ProductIdsDTO(
+        @NotEmpty(message = "Ids cannot be empty")
+        @Size(max = ProductIdsDTO.MAX_SIZE, message = "At most " + ProductIdsDTO.MAX_SIZE + " ids are allowed per request")
+        List<@NotNull(message = "Ids cannot be null") Long> ids
+) {
+
+    /**
+     * Quantidade máxima de itens por operação em lote, o que mantém a lista IN e a transação de tamanho limitado.
+     */
+    public static final int MAX_SIZE = 500;
+}
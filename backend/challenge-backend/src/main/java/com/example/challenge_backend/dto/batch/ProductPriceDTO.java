@@ -0,0 +1,22 @@
+package com.example.challenge_backend.dto.batch;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Novo preço de um produto, em uma alteração de preços em lote.
+ * As regras do preço são as mesmas de ProductDTO.
+ */
+public record ProductPriceDTO(
+        @NotNull(message = "Id cannot be null")
+        Long id,
+
+        @NotNull(message = "Price cannot be null")
+        @Min(value = 0, message = "Price cannot be negative")
+        @Max(value = 10000, message = "Price cannot be greater than 10000")
+        BigDecimal price
+) {
+}
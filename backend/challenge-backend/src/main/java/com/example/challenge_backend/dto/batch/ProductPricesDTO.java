@@ -0,0 +1,20 @@
+package com.example.challenge_backend.dto.batch;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Alteração de preços em lote. Se um id aparece mais de uma vez, vale o último preço informado.
+ *
+ * @param prices os novos preços, no máximo ProductIdsDTO.MAX_SIZE
+ */
+public record ProductPricesDTO(
+        @NotEmpty(message = "Prices cannot be empty")
+        @Size(max = ProductIdsDTO.MAX_SIZE, message = "At most " + ProductIdsDTO.MAX_SIZE + " prices are allowed per request")
+        List<@Valid @NotNull(message = "Prices cannot contain null items") ProductPriceDTO> prices
+) {
+}
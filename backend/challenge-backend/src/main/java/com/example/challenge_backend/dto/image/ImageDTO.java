@@ -0,0 +1,8 @@
+package com.example.challenge_backend.dto.image;
+
+/**
+ * Referência a uma imagem armazenada.
+ * A imagem é identificada pelo hash SHA-256 do seu conteúdo, o que permite reaproveitar o mesmo arquivo entre produtos.
+ */
+public record ImageDTO(String hash, long size, String contentType) {
+}
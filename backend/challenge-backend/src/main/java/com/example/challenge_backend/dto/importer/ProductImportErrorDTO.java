@@ -0,0 +1,8 @@
+package com.example.challenge_backend.dto.importer;
+
+/**
+ * Erro de uma linha da importação em lote, com o número da linha no arquivo NDJSON (a partir de 1, contando as linhas em branco)
+ * ou do registro no CSV (a partir de 1, sem contar o cabeçalho).
+ */
+public record ProductImportErrorDTO(long row, String message) {
+}
@@ -0,0 +1,10 @@
+package com.example.challenge_backend.dto.importer;
+
+import java.util.List;
+
+/**
+ * Resultado de uma importação em lote.
+ * A lista de erros é limitada; failed traz sempre o total de linhas rejeitadas.
+ */
+public record ProductImportResultDTO(long rows, long imported, long failed, List<ProductImportErrorDTO> errors) {
+}
@@ -0,0 +1,10 @@
+package com.example.challenge_backend.dto.importer;
+
+import java.math.BigDecimal;
+
+/**
+ * Uma linha do arquivo de importação em lote.
+ * O campo image é o caminho da imagem dentro do arquivo zip enviado junto.
+ */
+public record ProductImportRow(String name, BigDecimal price, String description, String image) {
+}
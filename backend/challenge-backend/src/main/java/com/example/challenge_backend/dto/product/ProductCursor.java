@@ -0,0 +1,38 @@
+package com.example.challenge_backend.dto.product;
+
+import com.example.challenge_backend.repository.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição de uma listagem paginada por cursor: a ordenação usada e a chave e o id do último item retornado.
+ * O cliente recebe o cursor codificado em Base64 e deve tratá-lo como um valor opaco.
+ */
+public record ProductCursor(ProductSort sort, Object lastKey, Long lastId) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        String raw = String.join(":", VERSION, sort.property(), String.valueOf(lastId), String.valueOf(lastKey));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     * O cursor só é aceito com a mesma ordenação com que foi gerado.
+     *
+     * @throws IllegalArgumentException se o cursor for inválido ou de outra ordenação
+     */
+    public static ProductCursor decode(String token, ProductSort sort) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split(":", 4);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!sort.property().equals(parts[1])) {
+            throw new IllegalArgumentException("Cursor was created for sort '" + parts[1] + "'");
+        }
+        return new ProductCursor(sort, sort.parseKey(parts[3]), Long.valueOf(parts[2]));
+    }
+}
@@ -5,7 +5,7 @@ import jakarta.validation.constraints.*;
 import java.math.BigDecimal;
 /*
 * Representa um produto.
-* A classe ProductDTO é um DTO que representa um produto. Ela possui os atributos id, name, price, description e image.
+* A classe ProductDTO é um DTO que representa um produto. Ela possui os atributos id, name, price, description, imageUrl e version.
  */
 public record ProductDTO(
         /**
@@ -40,9 +40,14 @@ public record ProductDTO(
         String description,
 
         /**
-         * O nome do arquivo da imagem do produto.
-         * O nome do arquivo da imagem do produto não pode ser vazio.
+         * A URL da imagem do produto.
+         * A imagem é servida separadamente, para que a listagem não dependa do tamanho dos arquivos.
          */
-        @NotNull(message = "Image cannot be empty")
-        byte[] image
+        String imageUrl,
+
+        /**
+         * A versão do produto.
+         * Muda a cada alteração do produto e é usada para gerar o ETag das respostas.
+         */
+        Long version
 ) {}
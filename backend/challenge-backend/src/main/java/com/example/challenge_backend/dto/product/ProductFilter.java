@@ -0,0 +1,22 @@
+package com.example.challenge_backend.dto.product;
+
+import java.math.BigDecimal;
+
+/**
+ * Filtros da consulta de produtos: começo do nome e faixa de preço, com limites inclusivos.
+ * Filtros nulos não restringem a consulta.
+ */
+public record ProductFilter(String namePrefix, BigDecimal minPrice, BigDecimal maxPrice) {
+
+    public ProductFilter {
+        namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+    }
+
+    public boolean hasName() {
+        return namePrefix != null;
+    }
+
+    public boolean hasPrice() {
+        return minPrice != null || maxPrice != null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.challenge_backend.dto.product;
+
+import java.math.BigDecimal;
+
+/*
+* Representa uma alteração parcial de um produto.
+* Os campos nulos são mantidos como estão; apenas os informados são validados e gravados.
+ */
+public record ProductPatchDTO(
+        /**
+         * O novo nome do produto, ou nulo para manter o atual.
+         */
+        String name,
+
+        /**
+         * O novo preço do produto, ou nulo para manter o atual.
+         */
+        BigDecimal price,
+
+        /**
+         * A nova descrição do produto, ou nula para manter a atual.
+         */
+        String description
+) {
+
+    /**
+     * Indica se a alteração não traz nenhum campo.
+     */
+    public boolean isEmpty() {
+        return name == null && price == null && description == null;
+    }
+}
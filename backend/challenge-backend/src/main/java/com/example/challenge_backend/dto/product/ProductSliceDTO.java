@@ -0,0 +1,10 @@
+package com.example.challenge_backend.dto.product;
+
+import java.util.List;
+
+/**
+ * Fatia de produtos da paginação por cursor.
+ * Diferente de uma página, não traz o total de registros; o campo next é o cursor para buscar a fatia seguinte e é nulo na última.
+ */
+public record ProductSliceDTO(List<ProductDTO> content, int size, boolean hasNext, String next) {
+}
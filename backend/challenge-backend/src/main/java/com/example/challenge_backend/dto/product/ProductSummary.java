@@ -0,0 +1,11 @@
+package com.example.challenge_backend.dto.product;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção de leitura de um produto.
+ * Contém apenas as colunas usadas nas respostas da API e é montada diretamente pela consulta, sem carregar a entidade Product
+ * nem registrá-la no contexto de persistência.
+ */
+public record ProductSummary(Long id, String name, BigDecimal price, String description, String imageHash, Long version) {
+}
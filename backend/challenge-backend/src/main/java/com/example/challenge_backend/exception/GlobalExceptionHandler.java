@@ -10,9 +10,16 @@
     import org.springframework.web.bind.annotation.ControllerAdvice;
     import org.springframework.web.bind.annotation.ExceptionHandler;
     import org.springframework.web.context.request.WebRequest;
+    import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+    import org.springframework.web.multipart.MaxUploadSizeExceededException;
+    import org.springframework.web.server.ResponseStatusException;
+    import org.springframework.web.util.DisconnectedClientHelper;
 
+    import java.io.IOException;
     import java.util.HashMap;
     import java.util.Map;
+    import java.util.concurrent.TimeUnit;
+    import java.util.concurrent.atomic.AtomicLong;
 
     /*
      * Essa classe é responsável por tratar as exceções lançadas pela aplicação.
@@ -26,16 +33,55 @@
          */
         private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+        /*
+         * Intervalo mínimo entre duas mensagens de recurso não encontrado no log.
+         */
+        private static final long NOT_FOUND_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        /*
+         * Quando a última mensagem de recurso não encontrado foi registrada, e quantas foram omitidas desde então.
+         */
+        private final AtomicLong notFoundLoggedAt = new AtomicLong(System.nanoTime() - NOT_FOUND_LOG_INTERVAL_NANOS);
+
+        private final AtomicLong notFoundSuppressed = new AtomicLong();
+
         /*
          * O método handleResourceNotFoundException é responsável por tratar a exceção ResourceNotFoundException.
+         * Um 404 é um erro do cliente, e robôs que percorrem IDs em sequência geram milhares por segundo; o log registra
+         * no máximo uma mensagem por segundo, com a quantidade de mensagens omitidas desde a anterior.
          */
         @ExceptionHandler(ResourceNotFoundException.class)
         public ResponseEntity<?> handleResourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
-            logger.error("Resource not found: {}", ex.getMessage());
+            long now = System.nanoTime();
+            long last = notFoundLoggedAt.get();
+            if (now - last >= NOT_FOUND_LOG_INTERVAL_NANOS && notFoundLoggedAt.compareAndSet(last, now)) {
+                logger.warn("Resource not found: {} ({} similar messages suppressed)", ex.getMessage(), notFoundSuppressed.getAndSet(0));
+            } else {
+                notFoundSuppressed.incrementAndGet();
+            }
             ErrorDetails errorDetails = new ErrorDetails(HttpStatus.NOT_FOUND.value(), ex.getMessage(), request.getDescription(false));
             return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
         }
 
+        /*
+         * O método handleResponseStatusException é responsável por tratar a exceção ResponseStatusException.
+         * O status definido por quem lançou a exceção é mantido na resposta, em vez de virar um erro 500.
+         * Só os erros do servidor (5xx) são registrados em ERROR; uma requisição recusada (4xx) é registrada em WARN,
+         * com a causa, e os serviços não registram de novo os erros do cliente antes de lançá-los.
+         */
+        @ExceptionHandler(ResponseStatusException.class)
+        public ResponseEntity<?> handleResponseStatusException(ResponseStatusException ex, WebRequest request) {
+            if (ex.getStatusCode().is5xxServerError()) {
+                logger.error("Request failed with status {}: {}", ex.getStatusCode().value(), ex.getReason());
+            } else if (ex.getCause() != null) {
+                logger.warn("Request rejected with status {}: {} ({})", ex.getStatusCode().value(), ex.getReason(), ex.getCause().getMessage());
+            } else {
+                logger.warn("Request rejected with status {}: {}", ex.getStatusCode().value(), ex.getReason());
+            }
+            ErrorDetails errorDetails = new ErrorDetails(ex.getStatusCode().value(), ex.getReason(), request.getDescription(false));
+            return new ResponseEntity<>(errorDetails, ex.getHeaders(), ex.getStatusCode());
+        }
+
         /*
          * O método handleValidationExceptions é responsável por tratar a exceção MethodArgumentNotValidException.
          * Essa exceção é lançada quando um argumento anotado com @Valid falha na validação.
@@ -49,10 +95,36 @@
                 errors.put(fieldName, errorMessage);
             });
 
-            logger.error("Validation errors: {}", errors);
+            logger.warn("Validation errors: {}", errors);
             return ResponseEntity.badRequest().body(errors);
         }
 
+        /*
+         * O método handleMaxUploadSizeExceededException trata os uploads maiores que os limites de multipart da rota.
+         * Sem ele, a exceção cairia no tratamento genérico e viraria um erro 500.
+         */
+        @ExceptionHandler(MaxUploadSizeExceededException.class)
+        public ResponseEntity<?> handleMaxUploadSizeExceededException(MaxUploadSizeExceededException ex, WebRequest request) {
+            logger.warn("Upload rejected: {}", ex.getMessage());
+            ErrorDetails errorDetails = new ErrorDetails(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Upload exceeds the maximum size", request.getDescription(false));
+            return new ResponseEntity<>(errorDetails, HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        /*
+         * O método handleIOException separa as conexões encerradas pelo cliente (um EventSource fechado no meio do feed de alterações,
+         * uma exportação interrompida) das demais falhas de E/S.
+         * Na desconexão não há a quem responder: o registro é em DEBUG e nada é escrito na resposta.
+         * As demais falhas (disco, arquivo de imagem ilegível) são erros do servidor e seguem o tratamento genérico.
+         */
+        @ExceptionHandler(IOException.class)
+        public ResponseEntity<?> handleIOException(IOException ex, WebRequest request) {
+            if (ex instanceof AsyncRequestNotUsableException || DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+                logger.debug("Client disconnected before the response was written: {}", ex.getMessage());
+                return null;
+            }
+            return handleGenericException(ex, request);
+        }
+
         /*
          * O método handleGlobalException é responsável por tratar qualquer outra exceção que não seja a ResourceNotFoundException.
          */
@@ -5,10 +5,19 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Exceção lançada quando um recurso não é encontrado.
+ * A exceção não guarda a pilha de chamadas: ela é um resultado esperado, lançada a cada ID inexistente pedido por um cliente,
+ * e a pilha, a parte mais cara de criar uma exceção, não diria nada além da mensagem.
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+
+    /**
+     * @return a exceção para um produto inexistente
+     */
+    public static ResourceNotFoundException product(Long id) {
+        return new ResourceNotFoundException("Product not found for this id: " + id);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.challenge_backend.metrics;
+
+/**
+ * Exceção lançada, no modo fail, quando uma requisição ultrapassa o orçamento de consultas do seu endpoint.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.challenge_backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conta os comandos SQL, linhas e bytes de LOB de cada requisição e confere o total com o orçamento do endpoint.
+ * As contagens também são publicadas como distribuições por rota (http.server.request.statements e http.server.request.rows)
+ * e, com app.query-budget.header=true, enviadas no cabeçalho X-Query-Stats.
+ * O modo fail é para testes e desenvolvimento: a conferência só acontece depois do controlador, e a maioria das respostas
+ * já foi enviada ao cliente a essa altura. Se a resposta ainda não foi enviada, a exceção vira um 500; se já foi, o cliente
+ * recebe a resposta original e a violação fica no log, mas a exceção é lançada do mesmo jeito, para que o teste falhe.
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    public static final String HEADER = "X-Query-Stats";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final QueryBudgetProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * As distribuições já registradas, por nome, método e rota.
+     */
+    private final Map<Key, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueryBudgetFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        HttpServletResponse target = properties.header() ? new StatsHeaderResponse(response, stats) : response;
+        try {
+            chain.doFilter(request, target);
+        } finally {
+            QueryStats.stop();
+        }
+
+        if (properties.header() && !response.isCommitted()) {
+            response.setHeader(HEADER, stats.toString());
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        summary("http.server.request.statements", request.getMethod(), uri).record(stats.statements());
+        summary("http.server.request.rows", request.getMethod(), uri).record(stats.rows());
+
+        String endpoint = request.getMethod() + " " + uri;
+        QueryBudgetProperties.Budget budget = properties.budgetFor(request.getMethod(), uri);
+        String violations = budget.violations(stats);
+        if (violations != null) {
+            String message = "Query budget exceeded for " + endpoint + ": " + violations + " (" + stats + ")";
+            if (properties.mode() == QueryBudgetProperties.Mode.FAIL) {
+                if (response.isCommitted()) {
+                    logger.error("{}; response was already committed with status {}", message, response.getStatus());
+                }
+                throw new QueryBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+    }
+
+    private DistributionSummary summary(String name, String method, String uri) {
+        return summaries.computeIfAbsent(new Key(name, method, uri), key -> DistributionSummary.builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry));
+    }
+
+    private record Key(String name, String method, String uri) {
+    }
+
+    /**
+     * Resposta que grava o cabeçalho com as contagens no momento em que o corpo começa a ser escrito,
+     * quando o controlador já terminou de acessar o banco e os cabeçalhos ainda podem ser alterados.
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final QueryStats stats;
+
+        private StatsHeaderResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+
+        private void writeHeader() {
+            if (!isCommitted()) {
+                setHeader(HEADER, stats.toString());
+            }
+        }
+    }
+}
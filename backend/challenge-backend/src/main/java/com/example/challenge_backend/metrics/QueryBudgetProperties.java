@@ -0,0 +1,69 @@
+package com.example.challenge_backend.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuração do orçamento de consultas por requisição (app.query-budget).
+ * Os orçamentos são definidos por rota e método HTTP, por exemplo:
+ * app.query-budget.endpoints.[/api/products/{id}].get.statements=2
+ *
+ * @param mode      off (sem contagem), warn (registra um aviso) ou fail (lança QueryBudgetExceededException; só para testes e desenvolvimento,
+ *                  pois a resposta pode já ter sido enviada quando o orçamento é conferido)
+ * @param header    se a resposta deve trazer o cabeçalho X-Query-Stats com as contagens, para uso em desenvolvimento
+ * @param defaults  o orçamento dos endpoints sem orçamento próprio
+ * @param endpoints os orçamentos por rota e, dentro dela, por método HTTP (em minúsculas)
+ */
+@ConfigurationProperties(prefix = "app.query-budget")
+public record QueryBudgetProperties(Mode mode, boolean header, Budget defaults, Map<String, Map<String, Budget>> endpoints) {
+
+    public QueryBudgetProperties {
+        mode = mode == null ? Mode.WARN : mode;
+        defaults = defaults == null ? new Budget(null, null, null) : defaults;
+        endpoints = endpoints == null ? Map.of() : endpoints;
+    }
+
+    /**
+     * @return o orçamento do endpoint, ou o padrão se ele não tiver orçamento próprio
+     */
+    public Budget budgetFor(String method, String uri) {
+        return endpoints.getOrDefault(uri, Map.of()).getOrDefault(method.toLowerCase(Locale.ROOT), defaults);
+    }
+
+    public enum Mode {
+        OFF, WARN, FAIL
+    }
+
+    /**
+     * Limites de uma requisição; um limite nulo não é verificado.
+     *
+     * @param statements os comandos SQL executados
+     * @param rows       as linhas lidas dos resultados
+     * @param lobBytes   os bytes de LOB lidos: o tamanho inteiro dos valores lidos por getBytes, getBlob e getClob,
+     *                   e só o que foi consumido dos streams de getBinaryStream e getCharacterStream (em caracteres, no segundo)
+     */
+    public record Budget(Long statements, Long rows, Long lobBytes) {
+
+        /**
+         * @return a descrição dos limites ultrapassados, ou null se a requisição ficou dentro do orçamento
+         */
+        String violations(QueryStats stats) {
+            StringBuilder violations = new StringBuilder();
+            check(violations, "statements", stats.statements(), statements);
+            check(violations, "rows", stats.rows(), rows);
+            check(violations, "lobBytes", stats.lobBytes(), lobBytes);
+            return violations.isEmpty() ? null : violations.toString();
+        }
+
+        private static void check(StringBuilder violations, String name, long actual, Long limit) {
+            if (limit != null && actual > limit) {
+                if (!violations.isEmpty()) {
+                    violations.append(", ");
+                }
+                violations.append(name).append(' ').append(actual).append(" > ").append(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.challenge_backend.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource que envolve conexões, comandos e resultados para contar, na requisição em andamento,
+ * os comandos SQL executados, as linhas lidas e os bytes de LOB lidos (ver QueryStats).
+ * Os LOBs lidos por getBytes, getBlob e getClob contam o tamanho inteiro; os lidos como stream (getBinaryStream, getCharacterStream)
+ * contam o que de fato foi lido do stream, em bytes ou caracteres.
+ * Quando não há requisição em andamento, as chamadas seguem direto para o driver, sem contagem.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    public QueryCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, super.getConnection(username, password));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return count(method, result);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Conta o resultado de uma chamada e envolve os objetos JDBC devolvidos, para que as chamadas seguintes também sejam contadas.
+     */
+    private static Object count(Method method, Object result) throws SQLException {
+        String name = method.getName();
+        QueryStats stats = QueryStats.current();
+
+        if (result instanceof CallableStatement statement) {
+            return proxy(CallableStatement.class, statement);
+        }
+        if (result instanceof PreparedStatement statement) {
+            return proxy(PreparedStatement.class, statement);
+        }
+        if (result instanceof Statement statement && !name.equals("getStatement")) {
+            return proxy(Statement.class, statement);
+        }
+        if (stats != null && method.getDeclaringClass() != ResultSet.class && name.startsWith("execute")) {
+            stats.statement();
+        }
+        if (result instanceof ResultSet resultSet && !name.equals("unwrap")) {
+            return proxy(ResultSet.class, resultSet);
+        }
+        if (stats != null && method.getDeclaringClass() == ResultSet.class) {
+            if (name.equals("next") && Boolean.TRUE.equals(result)) {
+                stats.row();
+            } else if (name.equals("getBytes") && result instanceof byte[] bytes) {
+                stats.lobBytes(bytes.length);
+            } else if (result instanceof InputStream stream) {
+                return new CountingInputStream(stream, stats);
+            } else if (result instanceof Reader reader) {
+                return new CountingReader(reader, stats);
+            } else if (result instanceof Blob blob) {
+                stats.lobBytes(blob.length());
+            } else if (result instanceof Clob clob) {
+                stats.lobBytes(clob.length());
+            }
+        }
+        return result;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final QueryStats stats;
+
+        private CountingInputStream(InputStream in, QueryStats stats) {
+            super(in);
+            this.stats = stats;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                stats.lobBytes(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                stats.lobBytes(read);
+            }
+            return read;
+        }
+    }
+
+    private static final class CountingReader extends FilterReader {
+
+        private final QueryStats stats;
+
+        private CountingReader(Reader in, QueryStats stats) {
+            super(in);
+            this.stats = stats;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c != -1) {
+                stats.lobBytes(1);
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int read = super.read(cbuf, off, len);
+            if (read > 0) {
+                stats.lobBytes(read);
+            }
+            return read;
+        }
+    }
+}
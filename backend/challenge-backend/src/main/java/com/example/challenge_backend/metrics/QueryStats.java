@@ -0,0 +1,60 @@
+package com.example.challenge_backend.metrics;
+
+/**
+ * Contadores de acesso ao banco da requisição em andamento: comandos SQL executados, linhas lidas e bytes de LOB lidos.
+ * Os contadores ficam em uma ThreadLocal, ligada pelo QueryBudgetFilter no início da requisição;
+ * fora de uma requisição (tarefas de inicialização, geração de imagens) nada é contado.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+
+    private long rows;
+
+    private long lobBytes;
+
+    static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    void statement() {
+        statements++;
+    }
+
+    void row() {
+        rows++;
+    }
+
+    void lobBytes(long bytes) {
+        lobBytes += bytes;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long lobBytes() {
+        return lobBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + statements + "; rows=" + rows + "; lobBytes=" + lobBytes;
+    }
+}
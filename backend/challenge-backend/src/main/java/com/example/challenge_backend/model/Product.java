@@ -6,14 +6,26 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 /**
  * Representa um produto.
- * A classe Product  é uma entidade que representa um produto. Ela possui os atributos id, name, price, description e image.
+ * A classe Product  é uma entidade que representa um produto. Ela possui os atributos id, name, price, description e a referência da imagem.
+ * Com @DynamicUpdate, o UPDATE traz apenas as colunas que de fato mudaram, e não a linha inteira.
+ * O esquema da tabela e dos índices é criado pelas migrações do Flyway em db/migration; o Hibernate apenas o valida.
  */
 @Entity
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_name_id_desc", columnList = "name desc, id desc"),
+        @Index(name = "idx_product_price_id_desc", columnList = "price desc, id desc"),
+        @Index(name = "idx_product_id_desc", columnList = "id desc"),
+        @Index(name = "idx_product_image_hash", columnList = "imageHash")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,9 +35,11 @@ public class Product {
     /**
      * O id do produto.
      * O id do produto é gerado automaticamente e é a chave primária da entidade.
+     * Os ids vêm de uma sequence reservada em blocos (otimizador pooled), o que permite ao Hibernate agrupar os INSERTs em lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -54,11 +68,28 @@ public class Product {
     private String description;
 
     /**
-     * O nome do arquivo da imagem do produto.
-     * O nome do arquivo da imagem do produto não pode ser vazio.
+     * O hash SHA-256 da imagem do produto.
+     * A imagem fica armazenada fora da tabela e é localizada por este hash.
      */
-    @Lob
+    @Column(length = 64)
     @NotNull(message = "Image cannot be empty")
-    private byte[] image;
+    private String imageHash;
+
+    /**
+     * O tamanho da imagem do produto, em bytes.
+     */
+    private Long imageSize;
+
+    /**
+     * O tipo da imagem do produto (image/png, image/jpeg).
+     */
+    private String imageContentType;
+
+    /**
+     * A versão do produto.
+     * É incrementada a cada alteração e usada no controle de concorrência otimista e no ETag das respostas.
+     */
+    @Version
+    private Long version;
 
 }
@@ -0,0 +1,68 @@
+package com.example.challenge_backend.repository;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Ordenações aceitas na listagem paginada por número de página.
+ * Cada uma corresponde a um índice (coluna, id) da tabela de produtos, percorrido no sentido indicado, e tem a sua consulta
+ * montada uma única vez; o parâmetro da requisição só escolhe uma delas, nunca entra no texto da consulta.
+ */
+public enum ProductOrder {
+
+    NAME_ASC(ProductSort.NAME, Sort.Direction.ASC),
+    NAME_DESC(ProductSort.NAME, Sort.Direction.DESC),
+    PRICE_ASC(ProductSort.PRICE, Sort.Direction.ASC),
+    PRICE_DESC(ProductSort.PRICE, Sort.Direction.DESC),
+    ID_ASC(ProductSort.ID, Sort.Direction.ASC),
+    ID_DESC(ProductSort.ID, Sort.Direction.DESC);
+
+    /*
+     * Valores aceitos no parâmetro sort ("name", "name,asc", "name,desc"...), já normalizados para minúsculas.
+     */
+    private static final Map<String, ProductOrder> BY_PARAMETER = Stream.of(values())
+            .flatMap(order -> order.direction.isAscending()
+                    ? Stream.of(Map.entry(order.sort.property(), order), Map.entry(order.sort.property() + ",asc", order))
+                    : Stream.of(Map.entry(order.sort.property() + ",desc", order)))
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+
+    private final ProductSort sort;
+
+    private final Sort.Direction direction;
+
+    private final String query;
+
+    ProductOrder(ProductSort sort, Sort.Direction direction) {
+        this.sort = sort;
+        this.direction = direction;
+        String suffix = direction.isAscending() ? "" : " desc";
+        // O id desempata no mesmo sentido da coluna, para que a ordem coincida com a do índice (coluna, id)
+        this.query = sort == ProductSort.ID
+                ? ProductRepository.SELECT_SUMMARY + " order by p.id" + suffix
+                : ProductRepository.SELECT_SUMMARY + " order by p." + sort.property() + suffix + ", p.id" + suffix;
+    }
+
+    public String query() {
+        return query;
+    }
+
+    /*
+     * A mesma ordenação no formato do Spring Data, devolvida junto com a página.
+     */
+    public Sort toSort() {
+        Sort byColumn = Sort.by(direction, sort.property());
+        return sort == ProductSort.ID ? byColumn : byColumn.and(Sort.by(direction, "id"));
+    }
+
+    public static ProductOrder from(String parameter) {
+        ProductOrder order = parameter == null ? null : BY_PARAMETER.get(parameter.replace(" ", "").toLowerCase(Locale.ROOT));
+        if (order == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + parameter + "; use name, price or id, optionally followed by ,asc or ,desc");
+        }
+        return order;
+    }
+}
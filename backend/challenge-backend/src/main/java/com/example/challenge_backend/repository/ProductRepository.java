@@ -1,18 +1,83 @@
 package com.example.challenge_backend.repository;
 
+import com.example.challenge_backend.dto.image.ImageDTO;
+import com.example.challenge_backend.dto.product.ProductSummary;
 import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.service.search.ProductSearchDocument;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 /*
 * Essa interface é responsável por fazer a comunicação com o banco de dados, ela extende a interface JpaRepository
  */
 @Repository
-public interface ProductRepository  extends JpaRepository<Product, Long> {
-    List<Product> findByNameContainingIgnoreCase(String name);
+public interface ProductRepository  extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /*
+     * Início de toda consulta que lê a projeção ProductSummary; as consultas de página e de cursor (ProductOrder, ProductSort)
+     * completam com o filtro e a ordenação.
+     */
+    String SELECT_SUMMARY = "select new com.example.challenge_backend.dto.product.ProductSummary("
+            + "p.id, p.name, p.price, p.description, p.imageHash, p.version) from Product p";
+
     Optional<Product> findById(Long id);
+    boolean existsByImageHash(String imageHash);
+
+    /*
+     * As consultas de leitura abaixo montam projeções diretamente no SELECT, lendo só as colunas necessárias
+     * e sem criar entidades gerenciadas pelo Hibernate.
+     */
+    @Query(SELECT_SUMMARY + " where p.id = :id")
+    Optional<ProductSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(SELECT_SUMMARY + " where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     * Remove os produtos em um único DELETE, sem carregar as entidades. Quem chama cuida dos caches, do índice de busca e das imagens.
+     */
+    @Modifying
+    @Query("delete from Product p where p.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /*
+     * Quais dos hashes informados ainda são usados por algum produto, em uma única consulta, para a limpeza das imagens após uma remoção em lote.
+     */
+    @Query("select distinct p.imageHash from Product p where p.imageHash in :hashes")
+    List<String> findImageHashesIn(@Param("hashes") Collection<String> hashes);
+
+    @Query("select p.version from Product p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.example.challenge_backend.dto.image.ImageDTO(p.imageHash, p.imageSize, p.imageContentType)"
+            + " from Product p where p.id = :id")
+    Optional<ImageDTO> findImageById(@Param("id") Long id);
+
+    /*
+     * Lê apenas os campos usados pelo índice de busca, em stream, para reconstruí-lo sem carregar o catálogo inteiro na memória.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.challenge_backend.service.search.ProductSearchDocument(p.id, p.name, p.description) from Product p")
+    Stream<ProductSearchDocument> streamSearchDocuments();
+
+    /*
+     * Lê o catálogo inteiro em stream, na ordem do id, para a exportação.
+     * O fetch size limita quantas linhas o driver traz de cada vez, e as projeções não ficam no contexto de persistência.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_SUMMARY + " order by p.id")
+    Stream<ProductSummary> streamSummaries();
 
 }
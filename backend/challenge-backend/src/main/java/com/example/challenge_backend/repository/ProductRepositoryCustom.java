@@ -0,0 +1,29 @@
+package com.example.challenge_backend.repository;
+
+import com.example.challenge_backend.dto.product.ProductFilter;
+import com.example.challenge_backend.dto.product.ProductSummary;
+
+import java.util.List;
+
+/*
+ * Consultas do repositório de produtos que não podem ser derivadas pelo Spring Data.
+ */
+public interface ProductRepositoryCustom {
+
+    /*
+     * Busca uma página de produtos na ordem indicada, com a consulta pré-montada dessa ordem.
+     */
+    List<ProductSummary> findPage(ProductOrder order, int offset, int limit);
+
+    /*
+     * Busca os produtos seguintes ao último item informado, na ordem indicada, sem contar o total de registros.
+     * Quando lastId é nulo, retorna o início da listagem.
+     */
+    List<ProductSummary> findSlice(ProductSort sort, Object lastKey, Long lastId, int limit);
+
+    /*
+     * Como findSlice, mas restrito aos produtos cujo nome começa pelo prefixo e cujo preço está na faixa do filtro.
+     * A consulta só percorre um índice se a ordenação for pela coluna filtrada; cabe a quem chama recusar as demais combinações.
+     */
+    List<ProductSummary> findFiltered(ProductFilter filter, ProductSort sort, Object lastKey, Long lastId, int limit);
+}
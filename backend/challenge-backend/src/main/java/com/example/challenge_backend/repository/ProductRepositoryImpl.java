@@ -0,0 +1,116 @@
+package com.example.challenge_backend.repository;
+
+import com.example.challenge_backend.dto.product.ProductFilter;
+import com.example.challenge_backend.dto.product.ProductSummary;
+import com.example.challenge_backend.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * Implementação das consultas customizadas do repositório de produtos.
+ * O Spring Data encontra esta classe pelo sufixo Impl e a combina com a interface ProductRepository.
+ */
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findPage(ProductOrder order, int offset, int limit) {
+        return entityManager.createQuery(order.query(), ProductSummary.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductSummary> findSlice(ProductSort sort, Object lastKey, Long lastId, int limit) {
+        TypedQuery<ProductSummary> query;
+        if (lastId == null) {
+            query = entityManager.createQuery(sort.firstQuery(), ProductSummary.class);
+        } else {
+            query = entityManager.createQuery(sort.nextQuery(), ProductSummary.class)
+                    .setParameter("lastId", lastId);
+            if (sort != ProductSort.ID) {
+                query.setParameter("lastKey", lastKey);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /*
+     * Monta a consulta com a Criteria API: os filtros e a condição do cursor viram um único WHERE,
+     * e a ordenação (coluna, id) é a mesma do índice correspondente.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ProductSummary> findFiltered(ProductFilter filter, ProductSort sort, Object lastKey, Long lastId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> criteria = cb.createQuery(ProductSummary.class);
+        Root<Product> product = criteria.from(Product.class);
+        criteria.select(cb.construct(ProductSummary.class, product.get("id"), product.get("name"), product.get("price"),
+                product.get("description"), product.get("imageHash"), product.get("version")));
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.hasName()) {
+            // O prefixo vira também uma faixa explícita (prefixo <= nome < prefixo seguinte), que o banco usa no índice
+            // mesmo com o padrão do LIKE vindo como parâmetro
+            String prefix = filter.namePrefix();
+            Path<String> name = product.get("name");
+            where.add(cb.greaterThanOrEqualTo(name, prefix));
+            nextPrefix(prefix).ifPresent(upper -> where.add(cb.lessThan(name, upper)));
+            where.add(cb.like(name, escapeLike(prefix) + "%", '\\'));
+        }
+        if (filter.minPrice() != null) {
+            where.add(cb.greaterThanOrEqualTo(product.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            where.add(cb.lessThanOrEqualTo(product.get("price"), filter.maxPrice()));
+        }
+
+        Path<Long> id = product.get("id");
+        if (lastId != null) {
+            if (sort == ProductSort.ID) {
+                where.add(cb.greaterThan(id, lastId));
+            } else {
+                // A primeira condição delimita a faixa do índice; a segunda descarta os empates já retornados
+                Path<Comparable<Object>> key = product.get(sort.property());
+                Comparable<Object> last = (Comparable<Object>) lastKey;
+                where.add(cb.greaterThanOrEqualTo(key, last));
+                where.add(cb.or(cb.greaterThan(key, last), cb.greaterThan(id, lastId)));
+            }
+        }
+        criteria.where(where.toArray(Predicate[]::new));
+        criteria.orderBy(sort == ProductSort.ID
+                ? List.of(cb.asc(id))
+                : List.of(cb.asc(product.get(sort.property())), cb.asc(id)));
+
+        return entityManager.createQuery(criteria).setMaxResults(limit).getResultList();
+    }
+
+    /*
+     * O menor texto maior que todos os que começam pelo prefixo: o prefixo com o último caractere incrementado.
+     */
+    private static Optional<String> nextPrefix(String prefix) {
+        int last = prefix.length() - 1;
+        char lastChar = prefix.charAt(last);
+        if (lastChar == Character.MAX_VALUE) {
+            return Optional.empty();
+        }
+        return Optional.of(prefix.substring(0, last) + (char) (lastChar + 1));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.challenge_backend.repository;
+
+import com.example.challenge_backend.dto.product.ProductSummary;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Locale;
+
+/*
+ * Ordenações aceitas na paginação por cursor.
+ * Cada ordenação é desempatada pelo id e tem um índice correspondente (coluna, id) na tabela de produtos,
+ * o que permite continuar a listagem a partir do último item sem percorrer as páginas anteriores.
+ */
+public enum ProductSort {
+
+    NAME("name") {
+        @Override
+        public Object keyOf(ProductSummary product) {
+            return product.name();
+        }
+
+        @Override
+        public Object parseKey(String value) {
+            return value;
+        }
+    },
+
+    PRICE("price") {
+        @Override
+        public Object keyOf(ProductSummary product) {
+            return product.price();
+        }
+
+        @Override
+        public Object parseKey(String value) {
+            return new BigDecimal(value);
+        }
+    },
+
+    ID("id") {
+        @Override
+        public Object keyOf(ProductSummary product) {
+            return product.id();
+        }
+
+        @Override
+        public Object parseKey(String value) {
+            return Long.valueOf(value);
+        }
+    };
+
+    private final String property;
+
+    private final String firstQuery;
+
+    private final String nextQuery;
+
+    ProductSort(String property) {
+        this.property = property;
+        String order = "id".equals(property) ? " order by p.id" : " order by p." + property + ", p.id";
+        this.firstQuery = ProductRepository.SELECT_SUMMARY + order;
+        // A primeira condição delimita a faixa do índice; a segunda descarta os empates já retornados
+        this.nextQuery = "id".equals(property)
+                ? ProductRepository.SELECT_SUMMARY + " where p.id > :lastId" + order
+                : ProductRepository.SELECT_SUMMARY + " where p." + property + " >= :lastKey"
+                + " and (p." + property + " > :lastKey or p.id > :lastId)" + order;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public String firstQuery() {
+        return firstQuery;
+    }
+
+    public String nextQuery() {
+        return nextQuery;
+    }
+
+    /*
+     * Retorna o valor da coluna de ordenação de um produto, que vai no cursor da próxima página.
+     */
+    public abstract Object keyOf(ProductSummary product);
+
+    /*
+     * Converte o valor lido do cursor para o tipo da coluna de ordenação.
+     */
+    public abstract Object parseKey(String value);
+
+    public static ProductSort from(String property) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.property.equals(property.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported sort property: " + property));
+    }
+}
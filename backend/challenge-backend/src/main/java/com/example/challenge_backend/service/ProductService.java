@@ -1,25 +1,70 @@
 package com.example.challenge_backend.service;
 
+import com.example.challenge_backend.config.CacheConfig;
+import com.example.challenge_backend.dto.batch.ProductBatchDTO;
+import com.example.challenge_backend.dto.batch.ProductBatchDeleteDTO;
+import com.example.challenge_backend.dto.batch.ProductPriceDTO;
+import com.example.challenge_backend.dto.image.ImageDTO;
+import com.example.challenge_backend.dto.product.ProductCursor;
 import com.example.challenge_backend.dto.product.ProductDTO;
-import com.example.challenge_backend.exception.ResourceNotFoundException;
+import com.example.challenge_backend.dto.product.ProductFilter;
+import com.example.challenge_backend.dto.product.ProductPatchDTO;
+import com.example.challenge_backend.dto.product.ProductSliceDTO;
+import com.example.challenge_backend.dto.product.ProductSummary;
+import com.example.challenge_backend.exception.ImageTooLargeException;
 import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.repository.ProductOrder;
 import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.repository.ProductSort;
+import com.example.challenge_backend.service.changes.ProductChange;
+import com.example.challenge_backend.service.changes.ProductChangeFeed;
+import com.example.challenge_backend.service.coalescing.Coalesced;
+import com.example.challenge_backend.service.coalescing.ReadCoalescer;
+import com.example.challenge_backend.service.search.ProductSearchIndex;
+import com.example.challenge_backend.service.search.SearchHits;
+import com.example.challenge_backend.service.storage.ImageStorageService;
+import com.example.challenge_backend.service.storage.ImageVariantService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -36,12 +81,72 @@ public class ProductService {
      */
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
 
+    /**
+     * Quantidade de caracteres do hash usada como versão na URL da imagem.
+     */
+    public static final int IMAGE_VERSION_LENGTH = 16;
+
+    /**
+     * Tamanho máximo de uma página de resultados da busca e da paginação por cursor.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String UPDATE_PRICE_SQL = "update product set price = ?, version = version + 1 where id = ? and version = ?";
+
     /**
      * O repositório é utilizado para realizar operações de persistência no banco de dados.
      */
     @Autowired
     private ProductRepository productRepository;
 
+    /**
+     * O armazenamento de imagens, que guarda os arquivos fora da tabela de produtos.
+     */
+    @Autowired
+    private ImageStorageService imageStorageService;
+
+    /**
+     * As versões redimensionadas das imagens, geradas em segundo plano após cada upload.
+     */
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    /**
+     * O índice de busca, mantido em memória e atualizado a cada alteração de produto.
+     */
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    /**
+     * O gerenciador de caches, consultado diretamente para descobrir a versão de um produto sem ir ao banco.
+     */
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Agrupa leituras idênticas simultâneas; é esvaziado a cada alteração de produto.
+     */
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    /**
+     * O feed de alterações, que leva cada alteração de produto aos clientes conectados depois do commit.
+     */
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    /**
+     * Usado na alteração de preços em lote, que envia os UPDATEs em um único lote JDBC.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * O validador usado na alteração parcial, que valida o produto resultante e não o corpo da requisição.
+     */
+    @Autowired
+    private Validator validator;
+
     /**
      * Cria um novo produto com base nos dados fornecidos.
      * A validação é feita para garantir que os dados estão corretos antes de persistir no banco de dados, minimizando erros de entrada.
@@ -51,62 +156,203 @@ public class ProductService {
      * @return o produto criado
      */
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.MISSING_PRODUCTS, allEntries = true)
+    })
     public ProductDTO create(@Valid ProductDTO productDTO, MultipartFile image) {
         if (!isValidImageType(image)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image type. Only JPG, JPEG, and PNG are allowed.");
         }
 
         try {
+            ImageDTO storedImage = storeImage(image);
+
             Product product = new Product();
             product.setName(productDTO.name());
             product.setPrice(productDTO.price());
             product.setDescription(productDTO.description());
-            product.setImage(productDTO.image());
+            applyImage(product, storedImage);
 
-            Product savedProduct = productRepository.save(product);
+            // O flush antecipa o INSERT, para que uma restrição violada no banco seja respondida com 400 e não estoure no commit
+            Product savedProduct = productRepository.saveAndFlush(product);
+            afterCommit(readCoalescer::invalidateAll);
+            afterCommit(() -> productSearchIndex.add(savedProduct.getId(), savedProduct.getName(), savedProduct.getDescription()));
+            afterCommit(() -> imageVariantService.generateAsync(storedImage.hash(), storedImage.contentType()));
+            ProductDTO created = mapToDTO(savedProduct);
+            afterCommit(() -> productChangeFeed.publish(ProductChange.Type.CREATED, created.id(), created));
             logger.info("Product created with ID: {}", savedProduct.getId());
-            return mapToDTO(savedProduct);
+            return created;
+        } catch (ImageTooLargeException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e);
         } catch (Exception e) {
-            logger.error("Error creating product: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to create product", e);
         }
     }
 
-    public ProductDTO findById(Long id) {
+    /**
+     * Busca um produto pelo ID.
+     * A leitura usa a projeção ProductSummary em uma transação somente leitura, sem carregar a entidade.
+     * O resultado fica no cache de produtos até ser substituído pela versão alterada ou o produto ser removido;
+     * um ID inexistente fica no cache negativo.
+     *
+     * @param id o ID do produto
+     * @return o produto encontrado, ou vazio se ele não existir
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null")
+    @Coalesced
+    public Optional<ProductDTO> findById(Long id) {
         try {
-            Product product = productRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found for this id: " + id));
-            return mapToDTO(product);
-        } catch (ResourceNotFoundException e) {
-            logger.error("Error finding product: {}", e.getMessage());
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+            return lookup(id, productRepository::findSummaryById).map(ProductService::mapToDTO);
         } catch (Exception e) {
             logger.error("Error finding product: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to find product", e);
         }
     }
 
+    /**
+     * Coloca produtos no cache de produtos sem consultar o banco, usado na carga do snapshot do catálogo.
+     * Dentro de uma transação, as inclusões só valem depois do commit.
+     *
+     * @param products os produtos a serem colocados no cache
+     */
+    public void preload(Collection<ProductSummary> products) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        for (ProductSummary product : products) {
+            cache.put(product.id(), mapToDTO(product));
+        }
+    }
+
+    /**
+     * Busca a versão atual de um produto, usada para responder a requisições condicionais (If-None-Match).
+     * Se o produto estiver no cache, a versão vem dele e o banco não é consultado; caso contrário, apenas a coluna version é lida.
+     * Um ID que está no cache negativo também é respondido sem consulta.
+     *
+     * @param id o ID do produto
+     * @return a versão do produto, ou vazio se ele não existir
+     */
+    public Optional<Long> findVersion(Long id) {
+        Cache.ValueWrapper cached = cacheManager.getCache(CacheConfig.PRODUCTS).get(id);
+        if (cached != null && cached.get() instanceof ProductDTO product) {
+            return Optional.ofNullable(product.version());
+        }
+        return lookup(id, productRepository::findVersionById);
+    }
+
     /**
      * Busca todos os produtos no banco de dados.
      * Utiliza paginação para lidar com grandes conjuntos de dados e ordenação para permitir a classificação dos resultados.
-     * A conversão para ProductDTO é feita para garantir que apenas as informações necessárias sejam expostas.
+     * A consulta seleciona apenas as colunas da projeção ProductSummary, em uma transação somente leitura.
+     * Só são aceitas as ordenações de ProductOrder, cada uma com um índice e uma consulta já montada;
+     * qualquer outro valor é recusado com 400 antes de chegar ao banco, assim como páginas negativas, tamanhos não positivos
+     * e páginas cujo deslocamento não cabe em um int.
      *
      * @param page o número da página
-     * @param size o número de itens por página
-     * @param sort o critério de ordenação
+     * @param size o número de itens por página, limitado a MAX_PAGE_SIZE
+     * @param sort o critério de ordenação: name, price ou id, opcionalmente seguido de ,asc ou ,desc
      * @return uma página de produtos
      */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_PAGES)
+    @Coalesced
     public Page<ProductDTO> findAll(int page, int size, String sort) {
+        // O OFFSET da consulta é um int; páginas além dele dariam a volta e trariam produtos de outra página
+        if (page < 0 || size <= 0 || (long) page * Math.min(size, MAX_PAGE_SIZE) > Integer.MAX_VALUE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid page request: page must not be negative, size must be positive and page * size must fit in an int");
+        }
+
+        ProductOrder order;
+        Pageable pageable;
+        try {
+            order = ProductOrder.from(sort);
+            pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE), order.toSort());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page request: " + e.getMessage(), e);
+        }
+
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
-            Page<Product> productsPage = productRepository.findAll(pageable);
-            return productsPage.map(this::mapToDTO);
+            List<ProductSummary> products = productRepository.findPage(order, (int) pageable.getOffset(), pageable.getPageSize());
+            // O COUNT só é executado quando o total não pode ser deduzido da própria página
+            return PageableExecutionUtils.getPage(products, pageable, productRepository::count).map(ProductService::mapToDTO);
         } catch (Exception e) {
             logger.error("Error retrieving products: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve products", e);
         }
     }
 
+    /**
+     * Busca produtos com paginação por cursor.
+     * Em vez de pular as páginas anteriores com OFFSET, a consulta continua a partir da chave de ordenação e do id do último item,
+     * usando o índice (coluna, id). Também não executa o COUNT(*), o que mantém o custo constante ao percorrer todo o catálogo.
+     *
+     * @param after o cursor devolvido pela fatia anterior; vazio ou nulo para começar do início
+     * @param size  o número de itens da fatia, limitado a MAX_PAGE_SIZE
+     * @param sort  o critério de ordenação (name, price ou id)
+     * @return a fatia de produtos e o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public ProductSliceDTO findSlice(String after, int size, String sort) {
+        ProductCursor cursor;
+        try {
+            ProductSort productSort = ProductSort.from(sort);
+            cursor = after == null || after.isBlank()
+                    ? new ProductCursor(productSort, null, null)
+                    : ProductCursor.decode(after, productSort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor request: " + e.getMessage(), e);
+        }
+
+        try {
+            int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            List<ProductSummary> products = productRepository.findSlice(cursor.sort(), cursor.lastKey(), cursor.lastId(), limit + 1);
+            return toSlice(products, limit, cursor.sort());
+        } catch (Exception e) {
+            logger.error("Error retrieving products: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to retrieve products", e);
+        }
+    }
+
+    /**
+     * Consulta produtos pelo começo do nome e por faixa de preço, com paginação por cursor.
+     * Filtros e cursor vão para uma única consulta, que percorre o índice (coluna, id) da ordenação.
+     * Para que nenhuma requisição leve a uma varredura da tabela, a ordenação tem de ser por uma coluna filtrada:
+     * com filtro de nome, sort=name; com faixa de preço, sort=price; com os dois, qualquer um deles, e o outro filtro é
+     * conferido nas linhas da faixa percorrida. As demais combinações são recusadas com 400.
+     * Sem ordenação informada, é usada a da coluna filtrada.
+     *
+     * @param filter o prefixo do nome (sensível a maiúsculas) e a faixa de preço
+     * @param sort   o critério de ordenação (name, price ou id), ou nulo para escolher pelo filtro
+     * @param after  o cursor devolvido pela fatia anterior, com os mesmos filtros; vazio ou nulo para começar do início
+     * @param size   o número de itens da fatia, limitado a MAX_PAGE_SIZE
+     * @return a fatia de produtos e o cursor da próxima
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public ProductSliceDTO query(ProductFilter filter, String sort, String after, int size) {
+        ProductCursor cursor;
+        try {
+            ProductSort productSort = sort == null || sort.isBlank() ? defaultSort(filter) : ProductSort.from(sort);
+            checkIndexed(filter, productSort);
+            cursor = after == null || after.isBlank()
+                    ? new ProductCursor(productSort, null, null)
+                    : ProductCursor.decode(after, productSort);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid product query: " + e.getMessage(), e);
+        }
+
+        try {
+            int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            List<ProductSummary> products = productRepository.findFiltered(filter, cursor.sort(), cursor.lastKey(), cursor.lastId(), limit + 1);
+            return toSlice(products, limit, cursor.sort());
+        } catch (Exception e) {
+            logger.error("Error querying products: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to query products", e);
+        }
+    }
+
     /**
      * Atualiza um produto com base no ID fornecido e nos dados fornecidos.
      * Utiliza uma exceção customizada para lidar com casos em que o produto não é encontrado, o que permite ao controlador retornar respostas apropriadas para o cliente.
@@ -115,92 +361,569 @@ public class ProductService {
      *
      * @param id o ID do produto a ser atualizado
      * @param productDTO os dados atualizados do produto
-     * @return o produto atualizado
+     * @return o produto atualizado, ou vazio se ele não existir
      */
     @Transactional
-    public ProductDTO update(Long id, @Valid ProductDTO productDTO, MultipartFile image) {
-        if (!isValidImageType(image)) {
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    )
+    public Optional<ProductDTO> update(Long id, @Valid ProductDTO productDTO, MultipartFile image) {
+        if (image != null && !isValidImageType(image)) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image type. Only JPG, JPEG, and PNG are allowed.");
         }
         try {
-            Product product = productRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found for this id: " + id));
+            Optional<Product> found = lookup(id, productRepository::findById);
+            if (found.isEmpty()) {
+                return Optional.empty();
+            }
+            Product product = found.get();
+            String oldName = product.getName();
+            String oldDescription = product.getDescription();
 
             product.setName(productDTO.name());
             product.setPrice(productDTO.price());
             product.setDescription(productDTO.description());
-            product.setImage(productDTO.image());
 
-            Product updatedProduct = productRepository.save(product);
+            // A comparação é feita pelo hash calculado durante a gravação, sem reler a imagem atual
+            if (image != null) {
+                ImageDTO storedImage = storeImage(image);
+                if (!storedImage.hash().equals(product.getImageHash())) {
+                    releaseImageAfterCommit(product.getImageHash());
+                    applyImage(product, storedImage);
+                    afterCommit(() -> imageVariantService.generateAsync(storedImage.hash(), storedImage.contentType()));
+                }
+            }
+
+            // O flush antecipa o UPDATE para que a versão devolvida já seja a nova
+            Product updatedProduct = productRepository.saveAndFlush(product);
+            afterCommit(readCoalescer::invalidateAll);
+            afterCommit(() -> productSearchIndex.update(id, oldName, oldDescription, updatedProduct.getName(), updatedProduct.getDescription()));
+            ProductDTO updated = mapToDTO(updatedProduct);
+            afterCommit(() -> productChangeFeed.publish(ProductChange.Type.UPDATED, id, updated));
             logger.info("Product updated with ID: {}", updatedProduct.getId());
-            return mapToDTO(updatedProduct);
-        } catch (ResourceNotFoundException e) {
-            logger.error("Error updating product: {}", e.getMessage());
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+            return Optional.of(updated);
+        } catch (ImageTooLargeException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e);
         } catch (Exception e) {
             logger.error("Error updating product: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update product", e);
         }
     }
 
+    /**
+     * Altera parcialmente um produto.
+     * O produto é lido uma única vez e só os campos informados que diferem dos atuais são alterados; com @DynamicUpdate,
+     * o UPDATE traz apenas essas colunas. Sem nova imagem, a referência da imagem não é tocada.
+     * A versão esperada vem do If-Match: se o produto já mudou desde que o cliente o leu, a resposta é 412 e nada é gravado.
+     * Se outra transação alterar o produto entre a leitura e o UPDATE, o controle otimista do @Version devolve 409.
+     *
+     * @param id              o ID do produto a ser alterado
+     * @param patch           os campos a alterar; campos nulos são mantidos
+     * @param image           a nova imagem do produto, ou nula para manter a atual
+     * @param expectedVersion a versão que o cliente leu
+     * @return o produto alterado, ou vazio se ele não existir
+     */
+    @Transactional
+    @Caching(
+            put = @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#id", unless = "#result == null"),
+            evict = @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    )
+    public Optional<ProductDTO> patch(Long id, ProductPatchDTO patch, MultipartFile image, long expectedVersion) {
+        if (image != null && !isValidImageType(image)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid image type. Only JPG, JPEG, and PNG are allowed.");
+        }
+        try {
+            Optional<Product> found = lookup(id, productRepository::findById);
+            if (found.isEmpty()) {
+                return Optional.empty();
+            }
+            Product product = found.get();
+            if (!Objects.equals(product.getVersion(), expectedVersion)) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                        "Product " + id + " was modified: expected version " + expectedVersion + " but found " + product.getVersion());
+            }
+            String oldName = product.getName();
+            String oldDescription = product.getDescription();
+
+            // Valida o produto como ficará depois da alteração, com as mesmas regras da criação
+            ProductDTO patched = new ProductDTO(id,
+                    patch.name() != null ? patch.name() : oldName,
+                    patch.price() != null ? patch.price() : product.getPrice(),
+                    patch.description() != null ? patch.description() : oldDescription,
+                    null, null);
+            String violations = validator.validate(patched).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted(Comparator.naturalOrder())
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, violations);
+            }
+
+            // Os setters só são chamados quando o valor muda; o preço é comparado pelo valor, sem considerar a escala (10 e 10.00)
+            if (!patched.name().equals(oldName)) {
+                product.setName(patched.name());
+            }
+            if (patched.price().compareTo(product.getPrice()) != 0) {
+                product.setPrice(patched.price());
+            }
+            if (!patched.description().equals(oldDescription)) {
+                product.setDescription(patched.description());
+            }
+            if (image != null) {
+                ImageDTO storedImage = storeImage(image);
+                if (!storedImage.hash().equals(product.getImageHash())) {
+                    releaseImageAfterCommit(product.getImageHash());
+                    applyImage(product, storedImage);
+                    afterCommit(() -> imageVariantService.generateAsync(storedImage.hash(), storedImage.contentType()));
+                }
+            }
+
+            // Sem nenhuma mudança, o flush não emite UPDATE e a versão continua a mesma
+            Product patchedProduct = productRepository.saveAndFlush(product);
+            afterCommit(readCoalescer::invalidateAll);
+            if (!oldName.equals(patchedProduct.getName()) || !oldDescription.equals(patchedProduct.getDescription())) {
+                afterCommit(() -> productSearchIndex.update(id, oldName, oldDescription, patchedProduct.getName(), patchedProduct.getDescription()));
+            }
+            ProductDTO patchedDTO = mapToDTO(patchedProduct);
+            if (!Objects.equals(patchedProduct.getVersion(), expectedVersion)) {
+                afterCommit(() -> productChangeFeed.publish(ProductChange.Type.UPDATED, id, patchedDTO));
+            }
+            logger.info("Product patched with ID: {}", id);
+            return Optional.of(patchedDTO);
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Product " + id + " was modified concurrently", e);
+        } catch (ImageTooLargeException e) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Error patching product: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to patch product", e);
+        }
+    }
+
     /**
      * Deleta um produto com base no ID fornecido.
-     * Utiliza uma exceção customizada para lidar com casos em que o produto não é encontrado, o que permite ao controlador retornar respostas apropriadas para o cliente.
+     * Um produto inexistente não é um erro do serviço: o resultado indica ao controlador que a resposta deve ser 404.
      *
      * @param id o ID do produto a ser deletado
+     * @return se o produto existia e foi removido
      */
-    public void delete(Long id) {
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id", condition = "#result"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    })
+    public boolean delete(Long id) {
         try {
-            Product product = productRepository.findById(id)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found for this id: " + id));
+            Optional<Product> found = lookup(id, productRepository::findById);
+            if (found.isEmpty()) {
+                return false;
+            }
+            Product product = found.get();
             productRepository.delete(product);
+            afterCommit(readCoalescer::invalidateAll);
+            releaseImageAfterCommit(product.getImageHash());
+            afterCommit(() -> productSearchIndex.remove(id, product.getName(), product.getDescription()));
+            afterCommit(() -> productChangeFeed.publish(ProductChange.Type.DELETED, id, null));
             logger.info("Product deleted with ID: {}", id);
-        } catch (ResourceNotFoundException e) {
-            logger.error("Error deleting product: {}", e.getMessage());
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+            return true;
         } catch (Exception e) {
             logger.error("Error deleting product: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete product", e);
         }
     }
 
+    /**
+     * Busca vários produtos pelo ID de uma só vez.
+     * Os produtos que já estão no cache de produtos vêm dele; os demais são lidos em uma única consulta com IN e entram no cache.
+     *
+     * @param ids os IDs dos produtos; repetições são consideradas uma única vez
+     * @return os produtos encontrados, na ordem dos IDs, e os IDs que não existem
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchDTO findAllById(List<Long> ids) {
+        try {
+            Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+            Set<Long> requested = new LinkedHashSet<>(ids);
+            Map<Long, ProductDTO> found = new HashMap<>();
+            List<Long> toLoad = new ArrayList<>();
+            for (Long id : requested) {
+                Cache.ValueWrapper cached = cache.get(id);
+                if (cached != null && cached.get() instanceof ProductDTO product) {
+                    found.put(id, product);
+                } else {
+                    toLoad.add(id);
+                }
+            }
+            if (!toLoad.isEmpty()) {
+                for (ProductSummary summary : productRepository.findSummariesByIdIn(toLoad)) {
+                    ProductDTO product = mapToDTO(summary);
+                    found.put(product.id(), product);
+                    cache.put(product.id(), product);
+                }
+            }
+            return toBatch(requested, found);
+        } catch (Exception e) {
+            logger.error("Error finding products: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to find products", e);
+        }
+    }
+
+    /**
+     * Remove vários produtos em uma única transação.
+     * Os produtos são lidos em uma consulta, para o índice de busca e a limpeza das imagens, e removidos com um único DELETE.
+     * As imagens que deixaram de ser usadas são verificadas depois do commit, também em uma consulta.
+     *
+     * @param ids os IDs dos produtos; repetições são consideradas uma única vez
+     * @return os IDs removidos e os que não existem
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    public ProductBatchDeleteDTO deleteAll(List<Long> ids) {
+        try {
+            Set<Long> requested = new LinkedHashSet<>(ids);
+            Map<Long, ProductSummary> products = productRepository.findSummariesByIdIn(requested).stream()
+                    .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+            if (products.isEmpty()) {
+                return new ProductBatchDeleteDTO(List.of(), List.copyOf(requested));
+            }
+            productRepository.deleteAllByIdIn(products.keySet());
+
+            Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+            products.keySet().forEach(cache::evict);
+            afterCommit(readCoalescer::invalidateAll);
+            releaseImagesAfterCommit(products.values().stream().map(ProductSummary::imageHash).collect(Collectors.toSet()));
+            afterCommit(() -> products.values().forEach(product -> {
+                productSearchIndex.remove(product.id(), product.name(), product.description());
+                productChangeFeed.publish(ProductChange.Type.DELETED, product.id(), null);
+            }));
+
+            List<Long> deleted = requested.stream().filter(products::containsKey).toList();
+            List<Long> missing = requested.stream().filter(id -> !products.containsKey(id)).toList();
+            logger.info("Products deleted in batch: {}", deleted.size());
+            return new ProductBatchDeleteDTO(deleted, missing);
+        } catch (Exception e) {
+            logger.error("Error deleting products: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to delete products", e);
+        }
+    }
+
+    /**
+     * Altera o preço de vários produtos em uma única transação.
+     * Os produtos são lidos em uma consulta e os UPDATEs vão ao banco em um único lote JDBC. O Hibernate não agrupa em lote
+     * os UPDATEs de entidades com @DynamicUpdate, então o lote é montado com o JdbcTemplate, na mesma conexão da transação.
+     * Cada UPDATE confere a versão lida e a incrementa, como o @Version faria: se algum produto mudou nesse meio tempo,
+     * nada é gravado e a resposta é 409. Produtos cujo preço não muda não são atualizados nem ganham nova versão.
+     *
+     * @param prices os novos preços; se um ID aparecer mais de uma vez, vale o último
+     * @return os produtos depois da alteração, na ordem dos IDs, e os IDs que não existem
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_PAGES, allEntries = true)
+    public ProductBatchDTO updatePrices(List<ProductPriceDTO> prices) {
+        try {
+            Map<Long, BigDecimal> requested = new LinkedHashMap<>();
+            prices.forEach(price -> requested.put(price.id(), price.price()));
+
+            Map<Long, ProductDTO> found = new HashMap<>();
+            List<ProductSummary> changed = new ArrayList<>();
+            for (ProductSummary product : productRepository.findSummariesByIdIn(requested.keySet())) {
+                BigDecimal price = requested.get(product.id());
+                if (price.compareTo(product.price()) == 0) {
+                    found.put(product.id(), mapToDTO(product));
+                } else {
+                    changed.add(product);
+                }
+            }
+
+            if (!changed.isEmpty()) {
+                int[] counts = jdbcTemplate.batchUpdate(UPDATE_PRICE_SQL, changed.stream()
+                        .map(product -> new Object[]{requested.get(product.id()), product.id(), product.version()})
+                        .toList());
+                for (int count : counts) {
+                    if (count == 0) {
+                        throw new ObjectOptimisticLockingFailureException(Product.class, "batch price update");
+                    }
+                }
+
+                Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+                List<ProductDTO> updated = changed.stream()
+                        .map(product -> mapToDTO(new ProductSummary(product.id(), product.name(), requested.get(product.id()),
+                                product.description(), product.imageHash(), product.version() + 1)))
+                        .toList();
+                updated.forEach(product -> {
+                    found.put(product.id(), product);
+                    cache.put(product.id(), product);
+                });
+                afterCommit(readCoalescer::invalidateAll);
+                afterCommit(() -> updated.forEach(product -> productChangeFeed.publish(ProductChange.Type.UPDATED, product.id(), product)));
+            }
+            logger.info("Product prices updated in batch: {}", changed.size());
+            return toBatch(requested.keySet(), found);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A product was modified concurrently", e);
+        } catch (Exception e) {
+            logger.error("Error updating prices: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to update prices", e);
+        }
+    }
+
     /**
      * Busca produtos com base em uma consulta fornecida.
+     * A busca é respondida pelo índice em memória, que devolve os IDs da página já ordenados por relevância; só os produtos dessa página são lidos do banco.
      * Utiliza uma exceção genérica para lidar com erros inesperados, o que permite ao controlador retornar respostas apropriadas para o cliente.
-     * A conversão para ProductDTO é feita para encapsular os dados e garantir que apenas as informações necessárias sejam expostas.
      *
      * @param query a string de pesquisa
-     * @return uma lista de produtos que correspondem à pesquisa
+     * @param page  o número da página
+     * @param size  o número de itens por página, limitado a MAX_PAGE_SIZE
+     * @return uma página de produtos que correspondem à pesquisa
      */
-    public List<ProductDTO> search(String query) {
+    @Transactional(readOnly = true)
+    @Coalesced
+    public Page<ProductDTO> search(String query, int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid page request: page must not be negative and size must be positive");
+        }
+
         try {
-            List<Product> products = productRepository.findByNameContainingIgnoreCase(query);
-            return products.stream()
-                    .map(this::mapToDTO)
-                    .collect(Collectors.toList());
+            Pageable pageable = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+            SearchHits hits = productSearchIndex.search(query, pageable.getPageNumber(), pageable.getPageSize());
+
+            Map<Long, ProductSummary> products = productRepository.findSummariesByIdIn(hits.ids()).stream()
+                    .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+            List<ProductDTO> content = hits.ids().stream()
+                    .map(products::get)
+                    .filter(Objects::nonNull)
+                    .map(ProductService::mapToDTO)
+                    .toList();
+            return new PageImpl<>(content, pageable, hits.total());
         } catch (Exception e) {
             logger.error("Error searching products: {}", e.getMessage());
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to search products", e);
         }
     }
 
+    /**
+     * Busca a referência da imagem de um produto.
+     * Apenas o hash, o tamanho e o tipo são lidos do banco; o conteúdo é servido pelo armazenamento de imagens.
+     *
+     * @param id o ID do produto
+     * @return a referência da imagem do produto, ou vazio se ele não existir
+     */
+    @Transactional(readOnly = true)
+    @Coalesced
+    public Optional<ImageDTO> findImage(Long id) {
+        try {
+            return lookup(id, productRepository::findImageById);
+        } catch (Exception e) {
+            logger.error("Error finding product image: {}", e.getMessage());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to find product image", e);
+        }
+    }
+
+    /**
+     * Executa a leitura de um produto pelo ID, a menos que o ID esteja no cache negativo.
+     * Um ID não encontrado entra no cache negativo, e as leituras seguintes dele, por app.cache.missing.expire-after-write,
+     * respondem vazio sem consultar o banco. Dentro de uma transação, a inclusão só vale depois do commit.
+     * Uma leitura que termine logo depois da criação do produto pode ainda incluí-lo no cache negativo;
+     * por isso o cache vive só alguns segundos.
+     *
+     * @param id    o ID do produto
+     * @param query a consulta pelo ID
+     * @return o resultado da consulta, ou vazio se o ID não existe
+     */
+    private <T> Optional<T> lookup(Long id, Function<Long, Optional<T>> query) {
+        Cache missing = cacheManager.getCache(CacheConfig.MISSING_PRODUCTS);
+        if (missing.get(id) != null) {
+            return Optional.empty();
+        }
+        Optional<T> result = query.apply(id);
+        if (result.isEmpty()) {
+            missing.put(id, Boolean.TRUE);
+        }
+        return result;
+    }
+
+    /**
+     * Monta a URL pública da imagem de um produto.
+     * O prefixo do hash vai na URL como versão, assim uma imagem nova sempre gera uma URL nova e a anterior pode ficar em cache indefinidamente.
+     *
+     * @param id   o ID do produto
+     * @param hash o hash da imagem
+     * @return a URL da imagem
+     */
+    public static String imageUrl(Long id, String hash) {
+        return "/api/products/" + id + "/image?v=" + hash.substring(0, IMAGE_VERSION_LENGTH);
+    }
+
     /**
      * Converte um objeto Product para um objeto ProductDTO.
      * Isso é feito para encapsular os dados e garantir que apenas as informações necessárias sejam expostas.
+     * Visível no pacote para os benchmarks de src/jmh.
      *
      * @param product o produto a ser convertido
      * @return o ProductDTO resultante
      */
-    private ProductDTO mapToDTO(Product product) {
+    ProductDTO mapToDTO(Product product) {
         return new ProductDTO(
                 product.getId(),
                 product.getName(),
                 product.getPrice(),
                 product.getDescription(),
-                product.getImage()
+                imageUrl(product.getId(), product.getImageHash()),
+                product.getVersion()
         );
     }
 
+    /**
+     * Converte uma projeção ProductSummary para um objeto ProductDTO.
+     * É o único mapeamento da projeção: também é usado pela exportação e pelos benchmarks de src/jmh.
+     *
+     * @param product a projeção a ser convertida
+     * @return o ProductDTO resultante
+     */
+    public static ProductDTO mapToDTO(ProductSummary product) {
+        return new ProductDTO(
+                product.id(),
+                product.name(),
+                product.price(),
+                product.description(),
+                imageUrl(product.id(), product.imageHash()),
+                product.version()
+        );
+    }
+
+    /**
+     * Monta a fatia a partir de uma consulta que pediu um item a mais que o limite: se ele veio, há uma próxima fatia,
+     * e o cursor dela aponta para o último item devolvido.
+     */
+    private ProductSliceDTO toSlice(List<ProductSummary> products, int limit, ProductSort sort) {
+        boolean hasNext = products.size() > limit;
+        List<ProductSummary> content = hasNext ? products.subList(0, limit) : products;
+        String next = null;
+        if (hasNext) {
+            ProductSummary last = content.get(content.size() - 1);
+            next = new ProductCursor(sort, sort.keyOf(last), last.id()).encode();
+        }
+        return new ProductSliceDTO(content.stream().map(ProductService::mapToDTO).toList(), limit, hasNext, next);
+    }
+
+    /**
+     * Monta o resultado de uma operação em lote na ordem dos IDs pedidos, separando os que não foram encontrados.
+     */
+    private static ProductBatchDTO toBatch(Collection<Long> requested, Map<Long, ProductDTO> found) {
+        List<ProductDTO> products = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            ProductDTO product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchDTO(products, missing);
+    }
+
+    private static ProductSort defaultSort(ProductFilter filter) {
+        return filter.hasPrice() && !filter.hasName() ? ProductSort.PRICE : ProductSort.NAME;
+    }
+
+    /**
+     * Recusa as combinações de filtro e ordenação que nenhum índice atende.
+     * Com algum filtro, a ordenação precisa ser por uma coluna filtrada: assim a consulta percorre apenas a faixa do índice
+     * dessa coluna, em vez do índice inteiro (ou da tabela inteira) à procura das linhas que passam no filtro.
+     */
+    private static void checkIndexed(ProductFilter filter, ProductSort sort) {
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (!filter.hasName() && !filter.hasPrice()) {
+            return;
+        }
+        boolean indexed = (sort == ProductSort.NAME && filter.hasName()) || (sort == ProductSort.PRICE && filter.hasPrice());
+        if (!indexed) {
+            throw new IllegalArgumentException("sort=" + sort.property() + " is not served by an index for these filters;"
+                    + " sort by a filtered column (" + (filter.hasName() ? "name" : "") + (filter.hasName() && filter.hasPrice() ? " or " : "")
+                    + (filter.hasPrice() ? "price" : "") + ")");
+        }
+    }
+
+    private void applyImage(Product product, ImageDTO image) {
+        product.setImageHash(image.hash());
+        product.setImageSize(image.size());
+        product.setImageContentType(image.contentType());
+    }
+
+    /**
+     * Grava a imagem enviada. A imagem fica reservada até o fim da transação, para que a remoção de uma imagem igual que deixou de ser
+     * usada por outro produto não apague o arquivo antes de este produto ser confirmado.
+     * Como ela é gravada antes do INSERT ou UPDATE, um rollback deixaria o arquivo no disco sem nenhum produto;
+     * nesse caso, a imagem e as suas versões são removidas, se nenhum produto já gravado a referenciar.
+     *
+     * @param image a imagem enviada
+     * @return a referência da imagem armazenada
+     */
+    private ImageDTO storeImage(MultipartFile image) throws IOException {
+        ImageDTO storedImage = imageStorageService.store(image.getInputStream(), image.getContentType());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                imageStorageService.release(storedImage.hash());
+                if (status == STATUS_ROLLED_BACK) {
+                    deleteImageIfUnused(storedImage.hash());
+                }
+            }
+        });
+        return storedImage;
+    }
+
+    /**
+     * Remove a imagem e as suas versões redimensionadas depois do commit, se nenhum outro produto ainda a referenciar.
+     * A remoção acontece só após o commit para que um rollback não deixe o produto apontando para um arquivo apagado.
+     *
+     * @param hash o hash da imagem que deixou de ser usada
+     */
+    private void releaseImageAfterCommit(String hash) {
+        afterCommit(() -> deleteImageIfUnused(hash));
+    }
+
+    /**
+     * Como releaseImageAfterCommit, para várias imagens: as que ainda têm produtos são descobertas em uma única consulta.
+     */
+    private void releaseImagesAfterCommit(Set<String> hashes) {
+        afterCommit(() -> imageStorageService.deleteUnused(hashes, productRepository::findImageHashesIn)
+                .forEach(imageVariantService::delete));
+    }
+
+    /**
+     * Remove a imagem e as suas versões redimensionadas, a menos que ela esteja reservada por uma gravação em andamento
+     * ou referenciada por um produto confirmado.
+     */
+    private void deleteImageIfUnused(String hash) {
+        if (imageStorageService.deleteIfUnused(hash, productRepository::existsByImageHash)) {
+            imageVariantService.delete(hash);
+        }
+    }
+
+    /**
+     * Executa uma ação somente depois que a transação atual for confirmada.
+     * É usado para manter estruturas fora do banco (imagens, índice de busca) coerentes com o que de fato foi gravado.
+     *
+     * @param action a ação a ser executada após o commit
+     */
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * Verifica se a imagem enviada é do tipo JPG, JPEG ou PNG.
      *
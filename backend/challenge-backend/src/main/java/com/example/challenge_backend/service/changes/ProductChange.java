@@ -0,0 +1,30 @@
+package com.example.challenge_backend.service.changes;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+
+import java.util.Locale;
+
+/**
+ * Uma alteração do catálogo, como é enviada aos clientes do feed.
+ * Em criações e atualizações, product traz o produto já alterado; em remoções, só o id é informado.
+ * RESYNC não se refere a um produto: avisa que o cliente precisa recarregar a listagem,
+ * seja porque muitas alterações foram feitas de uma vez (importação), seja porque ele ficou para trás.
+ *
+ * @param sequence o número da alteração, crescente
+ * @param type     o tipo da alteração
+ * @param id       o id do produto alterado
+ * @param product  o produto depois da alteração
+ */
+public record ProductChange(long sequence, Type type, Long id, ProductDTO product) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, RESYNC;
+
+        /**
+         * O nome do evento SSE, usado pelo cliente em addEventListener.
+         */
+        public String eventName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
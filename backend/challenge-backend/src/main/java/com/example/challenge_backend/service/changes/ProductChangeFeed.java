@@ -0,0 +1,336 @@
+package com.example.challenge_backend.service.changes;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feed das alterações do catálogo, enviado aos clientes por Server-Sent Events.
+ * As alterações ficam em um buffer circular de app.changes.buffer-size posições, numeradas em sequência crescente.
+ * O id de cada evento é "época-sequência": ao reconectar, o EventSource do navegador envia o último id no cabeçalho Last-Event-ID,
+ * e o cliente recebe só as alterações seguintes. Se elas já saíram do buffer, ou se o id é de outra execução da aplicação
+ * (a época muda a cada inicialização), o cliente recebe um evento resync e recarrega a listagem.
+ * Uma única thread distribui as alterações e os heartbeats, na ordem das alterações, para a fila de cada cliente, sem escrever
+ * em nenhuma conexão; nenhum envio é feito pela thread da requisição que alterou o produto.
+ * Cada cliente tem uma fila limitada (app.changes.subscriber-queue-size), esvaziada por uma thread de escrita só dele enquanto
+ * houver eventos, então um cliente que parou de ler não atrasa os demais. Quando a fila de um cliente enche, ele é desconectado:
+ * o EventSource reconecta com o Last-Event-ID e recebe o que perdeu, ou um resync se já saiu do buffer.
+ */
+@Component
+public class ProductChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    public static final String SUBSCRIBERS_GAUGE = "product.changes.subscribers";
+
+    /**
+     * Identifica esta execução da aplicação; a sequência recomeça a cada inicialização.
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Buffer circular das alterações: a alteração de sequência n fica na posição n % ring.length.
+     */
+    private final ProductChange[] ring;
+
+    /**
+     * A sequência da última alteração publicada; 0 antes da primeira. Protegida pelo monitor do feed, assim como o buffer.
+     */
+    private long head;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final ScheduledExecutorService sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-changes");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * As threads de escrita: no máximo uma por cliente com eventos na fila, e nenhuma para os clientes em dia.
+     */
+    private final ExecutorService writers;
+
+    private final long timeoutMillis;
+
+    private final int maxSubscribers;
+
+    private final int queueSize;
+
+    public ProductChangeFeed(
+            @Value("${app.changes.buffer-size:1024}") int bufferSize,
+            @Value("${app.changes.timeout:30m}") Duration timeout,
+            @Value("${app.changes.heartbeat:15s}") Duration heartbeat,
+            @Value("${app.changes.max-subscribers:1000}") int maxSubscribers,
+            @Value("${app.changes.subscriber-queue-size:256}") int queueSize,
+            MeterRegistry meterRegistry) {
+        this.ring = new ProductChange[bufferSize];
+        this.timeoutMillis = timeout.toMillis();
+        this.maxSubscribers = maxSubscribers;
+        this.queueSize = queueSize;
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "product-changes-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!heartbeat.isZero()) {
+            sender.scheduleWithFixedDelay(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        Gauge.builder(SUBSCRIBERS_GAUGE, subscribers, List::size)
+                .description("Clients connected to the product change feed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica uma alteração de produto. Deve ser chamado depois do commit, para que nenhum cliente veja uma alteração desfeita.
+     *
+     * @param type    o tipo da alteração
+     * @param id      o id do produto
+     * @param product o produto depois da alteração, ou nulo em remoções
+     */
+    public void publish(ProductChange.Type type, Long id, ProductDTO product) {
+        synchronized (this) {
+            long sequence = ++head;
+            ring[(int) (sequence % ring.length)] = new ProductChange(sequence, type, id, product);
+        }
+        sender.execute(this::deliverAll);
+    }
+
+    /**
+     * Avisa os clientes de que a listagem deve ser recarregada por inteiro, em vez de receber as alterações uma a uma.
+     */
+    public void publishResync() {
+        publish(ProductChange.Type.RESYNC, null, null);
+    }
+
+    /**
+     * Inscreve um cliente no feed.
+     * Sem Last-Event-ID, o cliente recebe um evento ready com o id atual e passa a receber as próximas alterações.
+     * Com um Last-Event-ID ainda coberto pelo buffer, recebe as alterações perdidas; caso contrário, um resync.
+     *
+     * @param lastEventId o id do último evento recebido, ou nulo
+     * @return o emitter da conexão
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many clients connected to the change feed");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        boolean resuming = lastEventId != null && !lastEventId.isBlank();
+        Subscriber subscriber = new Subscriber(emitter, resuming ? resumeFrom(lastEventId) : current(), queueSize);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+
+        sender.execute(() -> {
+            subscribers.add(subscriber);
+            if (!resuming && !enqueue(subscriber, SseEmitter.event().id(eventId(subscriber.lastQueued)).name("ready").data("{}"))) {
+                return;
+            }
+            deliver(subscriber);
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void deliverAll() {
+        subscribers.forEach(this::deliver);
+    }
+
+    /**
+     * Coloca na fila do cliente as alterações posteriores à última que ele recebeu, ou um resync se elas não estão mais no buffer.
+     * Roda sempre na thread do feed, então as alterações chegam a cada cliente uma única vez e em ordem.
+     */
+    private void deliver(Subscriber subscriber) {
+        List<ProductChange> changes;
+        long current;
+        synchronized (this) {
+            current = head;
+            changes = since(subscriber.lastQueued);
+        }
+
+        if (changes == null) {
+            if (enqueue(subscriber, SseEmitter.event().id(eventId(current)).name(ProductChange.Type.RESYNC.eventName()).data("{}"))) {
+                subscriber.lastQueued = current;
+            }
+            return;
+        }
+        for (ProductChange change : changes) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event()
+                    .id(eventId(change.sequence()))
+                    .name(change.type().eventName())
+                    .data(change, MediaType.APPLICATION_JSON);
+            if (!enqueue(subscriber, event)) {
+                return;
+            }
+            subscriber.lastQueued = change.sequence();
+        }
+    }
+
+    /**
+     * As alterações com sequência maior que after, ou nulo se alguma delas já foi sobrescrita no buffer.
+     * Uma sequência maior que a atual (ou negativa) só aparece com um id inválido, e também leva a um resync.
+     */
+    private List<ProductChange> since(long after) {
+        if (after < 0 || after > head || head - after > ring.length) {
+            return null;
+        }
+        List<ProductChange> changes = new ArrayList<>((int) (head - after));
+        for (long sequence = after + 1; sequence <= head; sequence++) {
+            changes.add(ring[(int) (sequence % ring.length)]);
+        }
+        return changes;
+    }
+
+    private synchronized long current() {
+        return head;
+    }
+
+    /**
+     * Lê a sequência do Last-Event-ID. Um id de outra execução ou mal formado vira -1, que leva a um resync.
+     */
+    private long resumeFrom(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Um cliente que parou de ler acumula heartbeats na fila até ela encher, e assim também é desconectado.
+     */
+    private void heartbeat() {
+        subscribers.forEach(subscriber -> enqueue(subscriber, SseEmitter.event().comment("heartbeat")));
+    }
+
+    /**
+     * Coloca um evento na fila do cliente, sem esperar, e garante que haja uma thread de escrita esvaziando-a.
+     * Com a fila cheia, o cliente está lendo mais devagar do que as alterações chegam e é desconectado.
+     *
+     * @return se o evento entrou na fila
+     */
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (subscriber.closed) {
+            return false;
+        }
+        if (!subscriber.queue.offer(event)) {
+            logger.debug("Dropping change feed client: {} events waiting to be written", subscriber.queue.size());
+            subscriber.overflowed = true;
+            close(subscriber);
+        }
+        schedule(subscriber);
+        return !subscriber.closed;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Escreve os eventos da fila do cliente, em ordem, até ela esvaziar. Só uma thread de escrita por cliente roda de cada vez.
+     * Um cliente desconectado por fila cheia tem o emitter encerrado aqui, depois que a escrita em andamento terminar,
+     * para que a thread do feed nunca espere pela conexão dele.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Dropping change feed client: {}", e.getMessage());
+                    close(subscriber);
+                }
+            }
+            if (subscriber.closed) {
+                subscriber.queue.clear();
+                if (subscriber.overflowed) {
+                    subscriber.emitter.complete();
+                }
+                // A flag fica ligada: um cliente desconectado não volta a ter thread de escrita
+                return;
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Um cliente conectado, a fila dos eventos ainda não escritos na conexão dele
+     * e a sequência da última alteração colocada na fila, lida e alterada só pela thread do feed.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+
+        /**
+         * Se há uma thread de escrita esvaziando a fila.
+         */
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private volatile boolean overflowed;
+
+        private long lastQueued;
+
+        private Subscriber(SseEmitter emitter, long lastQueued, int queueSize) {
+            this.emitter = emitter;
+            this.lastQueued = lastQueued;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.challenge_backend.service.coalescing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca uma leitura cujas chamadas simultâneas com os mesmos argumentos devem compartilhar uma única execução.
+ * Só deve ser usada em métodos sem efeitos colaterais, cujo resultado dependa apenas dos argumentos.
+ *
+ * @see ReadCoalescer
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesced {
+}
@@ -0,0 +1,126 @@
+package com.example.challenge_backend.service.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa leituras idênticas simultâneas (single-flight): a primeira chamada de uma chave executa a leitura
+ * e as que chegarem enquanto ela estiver em andamento esperam o mesmo resultado, em vez de irem ao banco cada uma.
+ * As leituras em andamento ficam em um ConcurrentHashMap de CompletableFuture, registradas com putIfAbsent, sem locks.
+ * Depois de concluída, a leitura continua sendo compartilhada por mais app.coalescing.window; uma alteração de produto
+ * descarta todas as leituras registradas (invalidateAll), para que nenhuma chamada posterior receba dados anteriores a ela.
+ * Erros não são compartilhados além das chamadas que já estavam esperando.
+ */
+@Component
+public class ReadCoalescer {
+
+    public static final String COUNTER = "product.service.reads";
+
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final long windowNanos;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Contadores por operação e resultado (executed ou coalesced), para não montar o contador a cada chamada.
+     */
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ReadCoalescer(
+            @Value("${app.coalescing.window:0ms}") Duration window,
+            MeterRegistry meterRegistry) {
+        this.windowNanos = window.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Executa a leitura ou, se uma leitura com a mesma operação e os mesmos argumentos estiver em andamento, espera o resultado dela.
+     *
+     * @param operation o nome da operação
+     * @param arguments os argumentos da leitura, que junto com a operação formam a chave
+     * @param loader    a leitura
+     * @return o resultado da leitura
+     */
+    public Object load(String operation, List<Object> arguments, Loader loader) throws Throwable {
+        Key key = new Key(operation, arguments);
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            counter(operation, "coalesced").increment();
+            return await(existing);
+        }
+
+        counter(operation, "executed").increment();
+        try {
+            Object result = loader.load();
+            created.complete(result);
+            release(key, created);
+            return result;
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            inFlight.remove(key, created);
+            throw e;
+        }
+    }
+
+    /**
+     * Descarta todas as leituras registradas. Quem já espera uma delas continua recebendo o resultado;
+     * as próximas chamadas fazem uma leitura nova.
+     */
+    public void invalidateAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Mantém o resultado disponível durante a janela e depois o remove, desde que a entrada ainda seja a mesma.
+     */
+    private void release(Key key, CompletableFuture<Object> future) {
+        if (windowNanos <= 0) {
+            inFlight.remove(key, future);
+        } else {
+            CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> inFlight.remove(key, future));
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    private Counter counter(String operation, String result) {
+        return counters.computeIfAbsent(operation + ':' + result, name -> Counter.builder(COUNTER)
+                .description("ProductService reads, by whether they ran or shared a concurrent identical read")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Uma leitura que pode lançar qualquer exceção, como a chamada ao método interceptado.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws Throwable;
+    }
+
+    private record Key(String operation, List<Object> arguments) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.challenge_backend.service.coalescing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Aplica o ReadCoalescer aos métodos anotados com @Coalesced.
+ * Roda depois do cache (order 0), para que um acerto de cache não passe por aqui, e antes da transação,
+ * para que as chamadas que esperam a leitura de outra não abram transação nem peguem conexão do pool.
+ */
+@Aspect
+@Component
+@Order(1)
+public class ReadCoalescingAspect {
+
+    private final ReadCoalescer readCoalescer;
+
+    public ReadCoalescingAspect(ReadCoalescer readCoalescer) {
+        this.readCoalescer = readCoalescer;
+    }
+
+    @Around("@annotation(com.example.challenge_backend.service.coalescing.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        return readCoalescer.load(joinPoint.getSignature().getName(), Arrays.asList(joinPoint.getArgs()), joinPoint::proceed);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.challenge_backend.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Codificações de conteúdo aceitas na exportação, escolhidas a partir do cabeçalho Accept-Encoding.
+ * Os streams de compressão são criados com sync flush, para que cada flush entregue ao cliente os produtos já escritos.
+ */
+public enum ContentCoding {
+
+    GZIP("gzip") {
+        @Override
+        public OutputStream wrap(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out, BUFFER_SIZE, true);
+        }
+    },
+
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream wrap(OutputStream out) {
+            return new DeflaterOutputStream(out, true);
+        }
+    },
+
+    IDENTITY("identity") {
+        @Override
+        public OutputStream wrap(OutputStream out) {
+            return out;
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /*
+     * O valor do cabeçalho Content-Encoding.
+     */
+    public String token() {
+        return token;
+    }
+
+    /*
+     * Envolve o stream da resposta com a compressão correspondente; fechar o stream devolvido conclui a compressão.
+     */
+    public abstract OutputStream wrap(OutputStream out) throws IOException;
+
+    /*
+     * Escolhe a codificação de maior peso (q) entre gzip e deflate; em caso de empate, gzip.
+     * O curinga * vale para as codificações não citadas. Sem nenhuma aceita, a resposta vai sem compressão.
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            switch (coding) {
+                case "gzip", "x-gzip" -> gzip = Math.max(gzip, quality);
+                case "deflate" -> deflate = Math.max(deflate, quality);
+                case "*" -> any = quality;
+                default -> {
+                }
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return IDENTITY;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.challenge_backend.service.export;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/*
+ * Formatos aceitos na exportação do catálogo.
+ * NDJSON traz um produto por linha e pode ser processado à medida que chega; JSON traz um único array com todos os produtos.
+ */
+public enum ExportFormat {
+
+    NDJSON("ndjson", "application/x-ndjson"),
+
+    JSON("json", "application/json");
+
+    private final String name;
+
+    private final String mediaType;
+
+    ExportFormat(String name, String mediaType) {
+        this.name = name;
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public static ExportFormat from(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name.equals(name.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported export format: " + name));
+    }
+}
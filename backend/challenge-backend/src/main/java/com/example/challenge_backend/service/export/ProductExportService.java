@@ -0,0 +1,119 @@
+package com.example.challenge_backend.service.export;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.dto.product.ProductSummary;
+import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta o catálogo inteiro de produtos, escrevendo um produto de cada vez diretamente no stream da resposta.
+ * Os produtos são lidos em stream de uma única consulta, com fetch size, e nunca ficam todos em memória:
+ * o uso de memória é o mesmo para dez ou para um milhão de produtos.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportService.class);
+
+    /**
+     * A cada quantos produtos o conteúdo já escrito é enviado ao cliente.
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * O stream da resposta é de quem chama, então o writer não o fecha.
+     */
+    private final ObjectWriter writer;
+
+    public ProductExportService(
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writer = objectMapper.writerFor(ProductDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+    }
+
+    /**
+     * Converte o formato pedido na requisição.
+     *
+     * @param format o nome do formato (ndjson ou json)
+     * @return o formato da exportação
+     */
+    public ExportFormat formatOf(String format) {
+        try {
+            return ExportFormat.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Escreve todos os produtos, em ordem de id, no formato informado.
+     * Como a resposta já começou a ser enviada, um erro no meio da exportação não vira uma resposta de erro:
+     * ele é registrado e relançado, e a conexão é encerrada com o conteúdo incompleto.
+     *
+     * @param format o formato da exportação
+     * @param out    o stream onde os produtos são escritos; não é fechado
+     * @return a quantidade de produtos exportados
+     */
+    public long export(ExportFormat format, OutputStream out) {
+        long start = System.nanoTime();
+        try {
+            Long exported = readOnlyTransaction.execute(status -> {
+                try (Stream<ProductSummary> products = productRepository.streamSummaries()) {
+                    return write(format, products.iterator(), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Exported {} products as {} in {} ms", exported, format, (System.nanoTime() - start) / 1_000_000);
+            return exported;
+        } catch (Exception e) {
+            logger.error("Error exporting products: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    private long write(ExportFormat format, Iterator<ProductSummary> products, OutputStream out) throws IOException {
+        long count = 0;
+        try (SequenceWriter sequence = format == ExportFormat.JSON ? writer.writeValuesAsArray(out) : writer.writeValues(out)) {
+            while (products.hasNext()) {
+                sequence.write(ProductService.mapToDTO(products.next()));
+                if (++count % FLUSH_INTERVAL == 0) {
+                    sequence.flush();
+                }
+            }
+        }
+        // No NDJSON cada produto termina com uma quebra de linha, inclusive o último
+        if (format == ExportFormat.NDJSON && count > 0) {
+            out.write('\n');
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.challenge_backend.service.importer;
+
+import com.example.challenge_backend.config.CacheConfig;
+import com.example.challenge_backend.dto.image.ImageDTO;
+import com.example.challenge_backend.dto.importer.ProductImportErrorDTO;
+import com.example.challenge_backend.dto.importer.ProductImportResultDTO;
+import com.example.challenge_backend.dto.importer.ProductImportRow;
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.service.changes.ProductChangeFeed;
+import com.example.challenge_backend.service.coalescing.ReadCoalescer;
+import com.example.challenge_backend.service.search.ProductSearchIndex;
+import com.example.challenge_backend.service.storage.ImageStorageService;
+import com.example.challenge_backend.service.storage.ImageVariantService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Importa produtos em lote a partir de um arquivo NDJSON ou CSV, com as imagens referenciadas por caminho dentro de um zip.
+ * O arquivo é lido linha a linha, sem carregar tudo em memória. Cada linha é validada com as mesmas regras do ProductDTO,
+ * e as linhas válidas são gravadas em blocos de app.import.batch-size, cada bloco em uma transação com INSERTs agrupados em lotes JDBC.
+ * Uma linha inválida não interrompe a importação: o erro é registrado no resultado e a leitura continua.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    /**
+     * Quantidade máxima de erros devolvidos no resultado, para que um arquivo todo inválido não gere uma resposta gigante.
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader();
+
+    private final ProductRepository productRepository;
+
+    private final ImageStorageService imageStorageService;
+
+    private final ImageVariantService imageVariantService;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final CacheManager cacheManager;
+
+    private final ReadCoalescer readCoalescer;
+
+    private final ProductChangeFeed productChangeFeed;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transaction;
+
+    private final ObjectReader jsonReader;
+
+    private final ObjectReader csvReader;
+
+    /**
+     * Quantidade de produtos gravados por transação e por lote JDBC.
+     */
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductImportService(
+            ProductRepository productRepository,
+            ImageStorageService imageStorageService,
+            ImageVariantService imageVariantService,
+            ProductSearchIndex productSearchIndex,
+            CacheManager cacheManager,
+            ReadCoalescer readCoalescer,
+            ProductChangeFeed productChangeFeed,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.import.batch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.imageStorageService = imageStorageService;
+        this.imageVariantService = imageVariantService;
+        this.productSearchIndex = productSearchIndex;
+        this.cacheManager = cacheManager;
+        this.readCoalescer = readCoalescer;
+        this.productChangeFeed = productChangeFeed;
+        this.validator = validator;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.jsonReader = objectMapper.readerFor(ProductImportRow.class);
+        this.csvReader = new CsvMapper().readerFor(ProductImportRow.class).with(CSV_SCHEMA);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Importa os produtos do arquivo informado.
+     *
+     * @param file   o arquivo com os produtos, em NDJSON (um objeto por linha) ou CSV com cabeçalho name,price,description,image
+     * @param images o zip com as imagens referenciadas pela coluna image
+     * @param format o formato do arquivo (ndjson ou csv); quando ausente, é deduzido pela extensão do arquivo
+     * @return o total de linhas lidas, importadas e rejeitadas, e os erros por linha
+     */
+    public ProductImportResultDTO importProducts(MultipartFile file, MultipartFile images, String format) {
+        boolean csv = isCsv(file, format);
+        Path zipPath = null;
+        try {
+            // O zip precisa de acesso aleatório às entradas, então é copiado para um arquivo temporário
+            if (images != null && !images.isEmpty()) {
+                zipPath = Files.createTempFile("product-import", ".zip");
+                images.transferTo(zipPath);
+            }
+            try (ZipFile zip = zipPath != null ? new ZipFile(zipPath.toFile()) : null;
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                Run run = new Run(zip);
+                try {
+                    if (csv) {
+                        readCsv(reader, run);
+                    } else {
+                        readNdjson(reader, run);
+                    }
+                    run.flush();
+                } finally {
+                    run.releaseImages();
+                }
+                logger.info("Bulk import finished: {} rows, {} imported, {} failed", run.rows, run.imported, run.failed);
+                return new ProductImportResultDTO(run.rows, run.imported, run.failed, run.errors);
+            }
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to read import file", e);
+        } finally {
+            if (zipPath != null) {
+                try {
+                    Files.deleteIfExists(zipPath);
+                } catch (IOException e) {
+                    logger.warn("Could not delete temporary file {}: {}", zipPath, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lê o NDJSON linha a linha. Linhas em branco são ignoradas, mas contam na numeração, para que os erros apontem a linha do arquivo.
+     */
+    private void readNdjson(BufferedReader reader, Run run) throws IOException {
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            run.rows++;
+            ProductImportRow parsed;
+            try {
+                parsed = jsonReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage(), null);
+                continue;
+            }
+            run.accept(lineNumber, parsed);
+        }
+    }
+
+    /**
+     * Lê o CSV registro a registro. Em caso de erro em um registro, o MappingIterator descarta o restante dele e segue para o próximo.
+     */
+    private void readCsv(Reader reader, Run run) throws IOException {
+        try (MappingIterator<ProductImportRow> rows = csvReader.readValues(reader)) {
+            while (true) {
+                ProductImportRow parsed;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    parsed = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    run.reject(++run.rows, "Invalid CSV record: " + e.getOriginalMessage(), null);
+                    continue;
+                } catch (RuntimeException e) {
+                    run.reject(++run.rows, "Invalid CSV record: " + e.getMessage(), null);
+                    continue;
+                }
+                run.accept(++run.rows, parsed);
+            }
+        }
+    }
+
+    private static boolean isCsv(MultipartFile file, String format) {
+        if (format != null && !format.isBlank()) {
+            return switch (format.toLowerCase(Locale.ROOT)) {
+                case "csv" -> true;
+                case "ndjson", "jsonl" -> false;
+                default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid import format: " + format);
+            };
+        }
+        String filename = file.getOriginalFilename();
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /**
+     * Tipo da imagem deduzido pela extensão do caminho, aceitando os mesmos tipos do cadastro individual.
+     */
+    private static String contentTypeOf(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) {
+            return "image/png";
+        }
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        return null;
+    }
+
+    /**
+     * Linha validada e com a imagem já gravada, pronta para ser inserida.
+     */
+    private record PendingProduct(long row, ProductDTO product, ImageDTO image) {
+    }
+
+    /**
+     * Estado de uma importação: contadores, erros e o bloco de produtos ainda não gravados.
+     */
+    private final class Run {
+
+        private final ZipFile zip;
+
+        private final List<PendingProduct> pending = new ArrayList<>(batchSize);
+
+        private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+
+        /**
+         * Imagens gravadas para linhas que acabaram rejeitadas; são removidas ao final se nenhum produto as referenciar.
+         */
+        private final Set<String> rejectedImages = new HashSet<>();
+
+        /**
+         * Imagens gravadas nesta importação, uma vez por gravação; ficam reservadas até o fim dela.
+         */
+        private final List<String> storedImages = new ArrayList<>();
+
+        private long rows;
+
+        private long imported;
+
+        private long failed;
+
+        private Run(ZipFile zip) {
+            this.zip = zip;
+        }
+
+        private void accept(long row, ProductImportRow parsed) throws IOException {
+            ProductDTO product = new ProductDTO(null, parsed.name(), parsed.price(), parsed.description(), null, null);
+            Set<ConstraintViolation<ProductDTO>> violations = validator.validate(product);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")), null);
+                return;
+            }
+
+            String path = parsed.image();
+            if (path == null || path.isBlank()) {
+                reject(row, "image: must not be blank", null);
+                return;
+            }
+            String contentType = contentTypeOf(path);
+            if (contentType == null) {
+                reject(row, "image: invalid image type. Only JPG, JPEG, and PNG are allowed.", null);
+                return;
+            }
+            ZipEntry entry = zip == null ? null : zip.getEntry(path);
+            if (entry == null || entry.isDirectory()) {
+                reject(row, "image: not found in images archive: " + path, null);
+                return;
+            }
+
+            ImageDTO image;
+            try (InputStream content = zip.getInputStream(entry)) {
+                image = imageStorageService.store(content, contentType);
+                storedImages.add(image.hash());
+            } catch (RuntimeException e) {
+                reject(row, "image: " + e.getMessage(), null);
+                return;
+            }
+
+            pending.add(new PendingProduct(row, product, image));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void reject(long row, String message, String imageHash) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportErrorDTO(row, message));
+            }
+            if (imageHash != null) {
+                rejectedImages.add(imageHash);
+            }
+        }
+
+        /**
+         * Grava o bloco pendente em uma única transação. Se o bloco falhar, as linhas são regravadas uma a uma,
+         * para que só as linhas com problema sejam rejeitadas.
+         */
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Product> saved;
+            try {
+                saved = insert(pending);
+            } catch (RuntimeException e) {
+                logger.warn("Bulk import batch failed, retrying {} rows individually: {}", pending.size(), e.getMessage());
+                saved = new ArrayList<>(pending.size());
+                for (PendingProduct product : pending) {
+                    try {
+                        saved.addAll(insert(List.of(product)));
+                    } catch (RuntimeException rowFailure) {
+                        reject(product.row(), "Failed to save product: " + rowFailure.getMessage(), product.image().hash());
+                    }
+                }
+            }
+            pending.clear();
+
+            // A transação do bloco já foi confirmada, então o índice, o cache e as versões das imagens podem ser atualizados.
+            // Imagens repetidas entre linhas são enviadas uma vez só para o gerador de versões.
+            Set<String> images = new HashSet<>();
+            for (Product product : saved) {
+                productSearchIndex.add(product.getId(), product.getName(), product.getDescription());
+                if (images.add(product.getImageHash())) {
+                    imageVariantService.generateAsync(product.getImageHash(), product.getImageContentType());
+                }
+            }
+            cacheManager.getCache(CacheConfig.PRODUCT_PAGES).clear();
+            cacheManager.getCache(CacheConfig.MISSING_PRODUCTS).clear();
+            readCoalescer.invalidateAll();
+            productChangeFeed.publishResync();
+            imported += saved.size();
+        }
+
+        private List<Product> insert(List<PendingProduct> products) {
+            return transaction.execute(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                List<Product> saved = new ArrayList<>(products.size());
+                for (PendingProduct pendingProduct : products) {
+                    Product product = new Product();
+                    product.setName(pendingProduct.product().name());
+                    product.setPrice(pendingProduct.product().price());
+                    product.setDescription(pendingProduct.product().description());
+                    product.setImageHash(pendingProduct.image().hash());
+                    product.setImageSize(pendingProduct.image().size());
+                    product.setImageContentType(pendingProduct.image().contentType());
+                    entityManager.persist(product);
+                    saved.add(product);
+                }
+                // Envia os INSERTs e libera as entidades, para que o contexto de persistência não cresça durante a importação
+                entityManager.flush();
+                entityManager.clear();
+                return saved;
+            });
+        }
+
+        /**
+         * Libera as reservas das imagens gravadas, cujos produtos já foram confirmados ou rejeitados,
+         * e remove as imagens das linhas rejeitadas que nenhum produto referencia.
+         */
+        private void releaseImages() {
+            storedImages.forEach(imageStorageService::release);
+            for (String hash : rejectedImages) {
+                if (imageStorageService.deleteIfUnused(hash, productRepository::existsByImageHash)) {
+                    imageVariantService.delete(hash);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.challenge_backend.service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza textos em português para o índice de busca.
+ * O texto é convertido para minúsculas, os acentos são removidos (ç vira c, ã vira a) e as palavras vazias
+ * mais comuns (de, da, para, com...) são descartadas, para que "Cadeira de Escritório" e "cadeira escritorio" gerem os mesmos termos.
+ */
+final class PortugueseAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "o", "as", "os", "e", "de", "da", "do", "das", "dos", "em", "na", "no", "nas", "nos",
+            "um", "uma", "uns", "umas", "para", "pra", "por", "com", "sem", "ao", "aos", "ou", "que", "se");
+
+    private PortugueseAnalyzer() {
+    }
+
+    /**
+     * Quebra um texto do produto nos termos que serão indexados, sem repetições.
+     *
+     * @param text o texto a ser analisado
+     * @return os termos do texto, na ordem em que aparecem
+     */
+    static Set<String> documentTokens(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : split(text)) {
+            if (!STOPWORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Quebra o texto digitado na busca em termos.
+     * O último termo é mantido mesmo quando é uma palavra vazia, porque durante a digitação ele ainda pode ser o começo de outra palavra.
+     *
+     * @param query o texto da busca
+     * @return os termos da busca
+     */
+    static List<String> queryTokens(String query) {
+        List<String> words = split(query);
+        List<String> tokens = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            boolean last = i == words.size() - 1;
+            if ((last || !STOPWORDS.contains(word)) && !tokens.contains(word)) {
+                tokens.add(word);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> split(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
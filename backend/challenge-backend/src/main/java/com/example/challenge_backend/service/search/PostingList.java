@@ -0,0 +1,55 @@
+package com.example.challenge_backend.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Lista ordenada e sem repetições dos documentos que contêm um termo.
+ * Os documentos são guardados em um array de int para ocupar pouca memória e permitir busca binária.
+ */
+final class PostingList {
+
+    private int[] docs = new int[4];
+
+    private int size;
+
+    boolean add(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index >= 0) {
+            return false;
+        }
+        index = -index - 1;
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size + (size >> 1) + 1);
+        }
+        System.arraycopy(docs, index, docs, index + 1, size - index);
+        docs[index] = doc;
+        size++;
+        return true;
+    }
+
+    boolean remove(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    int get(int index) {
+        return docs[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
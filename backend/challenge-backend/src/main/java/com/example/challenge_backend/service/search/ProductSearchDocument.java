@@ -0,0 +1,7 @@
+package com.example.challenge_backend.service.search;
+
+/**
+ * Campos de um produto usados pelo índice de busca.
+ */
+public record ProductSearchDocument(Long id, String name, String description) {
+}
@@ -0,0 +1,395 @@
+package com.example.challenge_backend.service.search;
+
+import com.example.challenge_backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória sobre o nome e a descrição dos produtos.
+ * Cada termo é indexado por todos os seus prefixos (até app.search.max-gram caracteres), o que permite responder a buscas
+ * enquanto o usuário digita sem varrer a tabela. Um termo de busca maior que max-gram é conferido contra as palavras completas
+ * indexadas que começam por ele, para não casar com qualquer palavra que só compartilhe os primeiros max-gram caracteres. O índice é reconstruído na inicialização e atualizado a cada alteração de produto.
+ * A busca devolve apenas os IDs da página pedida, ordenados por relevância; os produtos em si são carregados pelo serviço.
+ * A reconstrução roda depois da carga do snapshot do catálogo e antes do aquecimento (CatalogWarmup).
+ */
+@Component
+@Order(0)
+public class ProductSearchIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    /**
+     * Pesos usados na relevância: o nome vale mais que a descrição e a palavra completa vale mais que o prefixo.
+     */
+    private static final int NAME_EXACT = 8;
+    private static final int NAME_PREFIX = 4;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+
+    /**
+     * Prefixo das chaves que representam a palavra completa, para diferenciá-las das chaves de prefixo.
+     */
+    private static final String EXACT = "=";
+
+    private static final PostingList EMPTY = new PostingList();
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * Tamanho máximo dos prefixos indexados. Termos de busca maiores são conferidos pelas palavras em longTokens.
+     */
+    private final int maxGram;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingList> nameIndex = new HashMap<>();
+
+    private final Map<String, PostingList> descriptionIndex = new HashMap<>();
+
+    /**
+     * As palavras indexadas maiores que maxGram, no nome ou na descrição, agrupadas pelo prefixo de maxGram caracteres.
+     */
+    private final Map<String, Set<String>> longTokens = new HashMap<>();
+
+    /**
+     * Os documentos do índice são números sequenciais, mapeados para os IDs dos produtos.
+     * Os números dos produtos removidos são reaproveitados, para que productIds não cresça com as remoções.
+     */
+    private final Map<Long, Integer> docIds = new HashMap<>();
+
+    private long[] productIds = new long[1024];
+
+    private int nextDoc;
+
+    private int[] freeDocs = new int[16];
+
+    private int freeCount;
+
+    public ProductSearchIndex(
+            ProductRepository productRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.search.max-gram:12}") int maxGram) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxGram = maxGram;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Reconstrói o índice a partir do banco de dados.
+     * Os produtos são lidos em stream, apenas com os campos indexados.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        int indexed;
+        lock.writeLock().lock();
+        try {
+            nameIndex.clear();
+            descriptionIndex.clear();
+            longTokens.clear();
+            docIds.clear();
+            productIds = new long[1024];
+            nextDoc = 0;
+            freeCount = 0;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductSearchDocument> documents = productRepository.streamSearchDocuments()) {
+                    documents.forEach(document -> addLocked(document.id(), document.name(), document.description()));
+                }
+            });
+            indexed = docIds.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index rebuilt with {} products in {} ms", indexed, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adiciona um produto ao índice.
+     */
+    public void add(Long id, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            addLocked(id, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atualiza um produto no índice, trocando os termos antigos pelos novos.
+     */
+    public void update(Long id, String oldName, String oldDescription, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            Integer doc = docIds.get(id);
+            if (doc != null) {
+                unindex(nameIndex, doc, oldName);
+                unindex(descriptionIndex, doc, oldDescription);
+            }
+            addLocked(id, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um produto do índice.
+     */
+    public void remove(Long id, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca produtos cujo nome ou descrição contenham todos os termos informados, como palavra ou começo de palavra.
+     * Só os melhores (page + 1) * size resultados são mantidos durante a busca, em um heap de tamanho fixo.
+     *
+     * @param query o texto da busca
+     * @param page  o número da página
+     * @param size  o número de itens por página
+     * @return os IDs da página, em ordem de relevância, e o total de produtos encontrados
+     */
+    public SearchHits search(String query, int page, int size) {
+        List<String> tokens = PortugueseAnalyzer.queryTokens(query);
+        if (tokens.isEmpty() || size <= 0 || page < 0) {
+            return SearchHits.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            int terms = tokens.size();
+            PostingList[] namePrefix = new PostingList[terms];
+            PostingList[] nameExact = new PostingList[terms];
+            PostingList[] descriptionPrefix = new PostingList[terms];
+            PostingList[] descriptionExact = new PostingList[terms];
+
+            int driver = 0;
+            int driverSize = Integer.MAX_VALUE;
+            for (int i = 0; i < terms; i++) {
+                String token = tokens.get(i);
+                if (token.length() > maxGram) {
+                    namePrefix[i] = longPrefix(nameIndex, token);
+                    descriptionPrefix[i] = longPrefix(descriptionIndex, token);
+                } else {
+                    namePrefix[i] = nameIndex.getOrDefault(token, EMPTY);
+                    descriptionPrefix[i] = descriptionIndex.getOrDefault(token, EMPTY);
+                }
+                nameExact[i] = nameIndex.getOrDefault(EXACT + token, EMPTY);
+                descriptionExact[i] = descriptionIndex.getOrDefault(EXACT + token, EMPTY);
+
+                int candidates = namePrefix[i].size() + descriptionPrefix[i].size();
+                if (candidates == 0) {
+                    return SearchHits.empty();
+                }
+                if (candidates < driverSize) {
+                    driver = i;
+                    driverSize = candidates;
+                }
+            }
+
+            int limit = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+            PriorityQueue<Long> top = new PriorityQueue<>();
+            long total = 0;
+
+            // Percorre a união das listas do termo mais raro e confere os demais termos por busca binária
+            PostingList names = namePrefix[driver];
+            PostingList descriptions = descriptionPrefix[driver];
+            int n = 0;
+            int d = 0;
+            while (n < names.size() || d < descriptions.size()) {
+                int doc;
+                if (d >= descriptions.size() || (n < names.size() && names.get(n) < descriptions.get(d))) {
+                    doc = names.get(n++);
+                } else if (n >= names.size() || descriptions.get(d) < names.get(n)) {
+                    doc = descriptions.get(d++);
+                } else {
+                    doc = names.get(n++);
+                    d++;
+                }
+
+                int score = 0;
+                for (int i = 0; i < terms && score >= 0; i++) {
+                    int termScore = score(doc, namePrefix[i], nameExact[i], descriptionPrefix[i], descriptionExact[i]);
+                    score = termScore == 0 ? -1 : score + termScore;
+                }
+                if (score < 0) {
+                    continue;
+                }
+
+                total++;
+                long ranked = rank(score, doc);
+                if (top.size() < limit) {
+                    top.add(ranked);
+                } else if (ranked > top.peek()) {
+                    top.poll();
+                    top.add(ranked);
+                }
+            }
+
+            long[] ranking = new long[top.size()];
+            for (int i = ranking.length - 1; i >= 0; i--) {
+                ranking[i] = top.poll();
+            }
+
+            int from = (int) Math.min((long) page * size, ranking.length);
+            List<Long> ids = new ArrayList<>(ranking.length - from);
+            for (int i = from; i < ranking.length; i++) {
+                ids.add(productIds[docOf(ranking[i])]);
+            }
+            return new SearchHits(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Os documentos com alguma palavra que começa pelo termo, para termos maiores que maxGram, que não têm chave de prefixo:
+     * a união das listas das palavras completas que começam por ele.
+     */
+    private PostingList longPrefix(Map<String, PostingList> index, String token) {
+        PostingList postings = null;
+        for (String word : longTokens.getOrDefault(token.substring(0, maxGram), Set.of())) {
+            PostingList exact = word.startsWith(token) ? index.get(EXACT + word) : null;
+            if (exact == null) {
+                continue;
+            }
+            if (postings == null) {
+                postings = new PostingList();
+            }
+            for (int i = 0; i < exact.size(); i++) {
+                postings.add(exact.get(i));
+            }
+        }
+        return postings == null ? EMPTY : postings;
+    }
+
+    private static int score(int doc, PostingList namePrefix, PostingList nameExact,
+                             PostingList descriptionPrefix, PostingList descriptionExact) {
+        int score = 0;
+        if (namePrefix.contains(doc)) {
+            score += nameExact.contains(doc) ? NAME_EXACT + NAME_PREFIX : NAME_PREFIX;
+        }
+        if (descriptionPrefix.contains(doc)) {
+            score += descriptionExact.contains(doc) ? DESCRIPTION_EXACT + DESCRIPTION_PREFIX : DESCRIPTION_PREFIX;
+        }
+        return score;
+    }
+
+    /**
+     * Combina a relevância e o documento em um único long, para que o heap não precise de objetos auxiliares.
+     * Em caso de empate, o documento de menor número fica na frente.
+     */
+    private static long rank(int score, int doc) {
+        return ((long) score << 32) | (Integer.MAX_VALUE - doc);
+    }
+
+    private static int docOf(long rank) {
+        return Integer.MAX_VALUE - (int) rank;
+    }
+
+    private void addLocked(Long id, String name, String description) {
+        Integer existing = docIds.get(id);
+        int doc;
+        if (existing != null) {
+            doc = existing;
+        } else if (freeCount > 0) {
+            doc = freeDocs[--freeCount];
+            productIds[doc] = id;
+            docIds.put(id, doc);
+        } else {
+            doc = nextDoc++;
+            if (doc == productIds.length) {
+                productIds = Arrays.copyOf(productIds, doc * 2);
+            }
+            productIds[doc] = id;
+            docIds.put(id, doc);
+        }
+        index(nameIndex, doc, name);
+        index(descriptionIndex, doc, description);
+    }
+
+    private void removeLocked(Long id, String name, String description) {
+        Integer doc = docIds.remove(id);
+        if (doc == null) {
+            return;
+        }
+        unindex(nameIndex, doc, name);
+        unindex(descriptionIndex, doc, description);
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeCount * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    private void index(Map<String, PostingList> index, int doc, String text) {
+        for (String key : keys(text)) {
+            index.computeIfAbsent(key, k -> new PostingList()).add(doc);
+            if (key.length() > maxGram + EXACT.length() && key.startsWith(EXACT)) {
+                longTokens.computeIfAbsent(key.substring(EXACT.length(), EXACT.length() + maxGram), k -> new HashSet<>())
+                        .add(key.substring(EXACT.length()));
+            }
+        }
+    }
+
+    private void unindex(Map<String, PostingList> index, int doc, String text) {
+        for (String key : keys(text)) {
+            PostingList postings = index.get(key);
+            if (postings != null && postings.remove(doc) && postings.isEmpty()) {
+                index.remove(key);
+                if (key.length() > maxGram + EXACT.length() && key.startsWith(EXACT) && !nameIndex.containsKey(key)
+                        && !descriptionIndex.containsKey(key)) {
+                    String prefix = key.substring(EXACT.length(), EXACT.length() + maxGram);
+                    Set<String> words = longTokens.get(prefix);
+                    if (words != null && words.remove(key.substring(EXACT.length())) && words.isEmpty()) {
+                        longTokens.remove(prefix);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gera as chaves de um texto: a palavra completa e cada um dos seus prefixos.
+     */
+    private List<String> keys(String text) {
+        Set<String> tokens = PortugueseAnalyzer.documentTokens(text);
+        List<String> keys = new ArrayList<>(tokens.size() * (maxGram + 1));
+        for (String token : tokens) {
+            keys.add(EXACT + token);
+            for (int length = 1; length <= Math.min(token.length(), maxGram); length++) {
+                keys.add(token.substring(0, length));
+            }
+        }
+        return keys;
+    }
+}
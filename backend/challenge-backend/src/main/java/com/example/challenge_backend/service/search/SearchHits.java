@@ -0,0 +1,14 @@
+package com.example.challenge_backend.service.search;
+
+import java.util.List;
+
+/**
+ * Resultado de uma busca no índice.
+ * Traz apenas os IDs da página pedida, já ordenados por relevância, e o total de produtos encontrados.
+ */
+public record SearchHits(List<Long> ids, long total) {
+
+    public static SearchHits empty() {
+        return new SearchHits(List.of(), 0);
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.challenge_backend.service.snapshot;
+
+import com.example.challenge_backend.dto.product.ProductSummary;
+import com.example.challenge_backend.service.ProductService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot do catálogo em arquivo, para que uma instância reiniciada com o banco em memória não comece vazia.
+ * O snapshot é gravado periodicamente e no desligamento, em um formato binário compacto com as colunas da tabela de produtos
+ * (as imagens ficam no armazenamento de imagens e não entram no snapshot).
+ * Na inicialização, se a tabela estiver vazia, o snapshot é carregado com INSERTs em lotes JDBC, os produtos vão para o cache
+ * e a sequence de ids é avançada. Roda antes dos demais ApplicationRunners, em especial da reconstrução do índice de busca.
+ * Ativado por app.snapshot.enabled=true.
+ */
+@Service
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotService implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    /**
+     * Identificação do arquivo ("CSNP") e versão do formato. Um arquivo de outro formato é ignorado.
+     */
+    private static final int MAGIC = 0x43534E50;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * O incremento da sequence product_seq, igual ao allocationSize da entidade.
+     */
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final String SELECT = "select id, name, price, description, image_hash, image_size, image_content_type, version"
+            + " from product order by id";
+
+    private static final String INSERT = "insert into product (id, name, price, description, image_hash, image_size, image_content_type, version)"
+            + " values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transaction;
+
+    private final ProductService productService;
+
+    private final Path file;
+
+    private final Duration interval;
+
+    /**
+     * Quantos produtos do snapshot são colocados no cache de produtos na carga.
+     */
+    private final int cachedProducts;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CatalogSnapshotService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductService productService,
+            @Value("${app.snapshot.file}") Path file,
+            @Value("${app.snapshot.interval:10m}") Duration interval,
+            @Value("${app.snapshot.cache-products:10000}") int cachedProducts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.productService = productService;
+        this.file = file.toAbsolutePath();
+        this.interval = interval;
+        this.cachedProducts = cachedProducts;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        load();
+        if (!interval.isZero()) {
+            scheduler.scheduleWithFixedDelay(this::dumpQuietly, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Grava o snapshot no desligamento, enquanto o banco ainda está disponível.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dumpQuietly();
+    }
+
+    /**
+     * Carrega o snapshot, se existir e se a tabela de produtos estiver vazia.
+     * A carga é feita em uma única transação: um arquivo corrompido não deixa o catálogo pela metade.
+     *
+     * @return a quantidade de produtos carregados
+     */
+    public long load() {
+        if (Files.notExists(file)) {
+            logger.info("No catalog snapshot at {}", file);
+            return 0;
+        }
+        Long existing = jdbcTemplate.queryForObject("select count(*) from product", Long.class);
+        if (existing != null && existing > 0) {
+            logger.info("Catalog snapshot not loaded: the product table already has {} products", existing);
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        try {
+            long loaded = transaction.execute(status -> {
+                try {
+                    return read();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Catalog snapshot loaded with {} products in {} ms", loaded, (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        } catch (Exception e) {
+            logger.error("Error loading catalog snapshot {}: {}", file, e.getMessage());
+            setAside();
+            return 0;
+        }
+    }
+
+    /**
+     * Grava o catálogo atual no snapshot.
+     * O arquivo é escrito ao lado do definitivo e movido no final, então uma falha no meio nunca deixa um snapshot truncado.
+     *
+     * @return a quantidade de produtos gravados
+     */
+    public long dump() throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            long[] count = new long[1];
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 65536))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT);
+                    statement.setFetchSize(BATCH_SIZE);
+                    return statement;
+                }, (RowCallbackHandler) resultSet -> {
+                    try {
+                        out.writeBoolean(true);
+                        out.writeLong(resultSet.getLong(1));
+                        out.writeUTF(resultSet.getString(2));
+                        out.writeUTF(resultSet.getBigDecimal(3).toPlainString());
+                        out.writeUTF(resultSet.getString(4));
+                        out.writeUTF(resultSet.getString(5));
+                        writeNullableLong(out, resultSet.getObject(6, Long.class));
+                        writeNullableString(out, resultSet.getString(7));
+                        writeNullableLong(out, resultSet.getObject(8, Long.class));
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.writeBoolean(false);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("Catalog snapshot written with {} products in {} ms", count[0], (System.nanoTime() - start) / 1_000_000);
+            return count[0];
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Renomeia um snapshot que não pôde ser carregado, para que o próximo snapshot gravado não o sobrescreva antes de ser examinado.
+     */
+    private void setAside() {
+        Path rejected = file.resolveSibling(file.getFileName() + ".rejected");
+        try {
+            Files.move(file, rejected, StandardCopyOption.REPLACE_EXISTING);
+            logger.warn("Catalog snapshot moved to {}", rejected);
+        } catch (IOException e) {
+            logger.error("Error moving catalog snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (Exception e) {
+            logger.error("Error writing catalog snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    private long read() throws IOException {
+        long count = 0;
+        long maxId = 0;
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        List<ProductSummary> cached = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 65536))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+            while (in.readBoolean()) {
+                long id = in.readLong();
+                String name = in.readUTF();
+                BigDecimal price = new BigDecimal(in.readUTF());
+                String description = in.readUTF();
+                String imageHash = in.readUTF();
+                Long imageSize = readNullableLong(in);
+                String imageContentType = readNullableString(in);
+                Long version = readNullableLong(in);
+
+                batch.add(new Object[]{id, name, price, description, imageHash, imageSize, imageContentType, version});
+                if (batch.size() == BATCH_SIZE) {
+                    jdbcTemplate.batchUpdate(INSERT, batch);
+                    batch.clear();
+                }
+                if (cached.size() < cachedProducts) {
+                    cached.add(new ProductSummary(id, name, price, description, imageHash, version));
+                }
+                maxId = Math.max(maxId, id);
+                count++;
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, batch);
+        }
+        // A sequence recomeça depois do maior id carregado, com folga de um bloco inteiro do otimizador pooled do Hibernate
+        jdbcTemplate.execute("alter sequence product_seq restart with " + (maxId + SEQUENCE_INCREMENT + 1));
+        productService.preload(cached);
+        return count;
+    }
+
+    private static void writeNullableLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static Long readNullableLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
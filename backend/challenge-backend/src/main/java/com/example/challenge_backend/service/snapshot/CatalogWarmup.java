@@ -0,0 +1,75 @@
+package com.example.challenge_backend.service.snapshot;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exercita os caminhos mais usados do ProductService antes de a aplicação aceitar tráfego.
+ * O Spring Boot só marca a aplicação como pronta (readiness ACCEPTING_TRAFFIC) depois que todos os ApplicationRunners terminam,
+ * então as primeiras requisições já encontram as consultas preparadas, os metadados do Hibernate e do Jackson inicializados
+ * e o código compilado pelo JIT. Roda por último, depois da carga do snapshot e da reconstrução do índice de busca.
+ * A quantidade de repetições é definida por app.warmup.iterations; com 0, não roda.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class CatalogWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogWarmup.class);
+
+    private static final List<String> SORTS = List.of("name", "price", "id");
+
+    private final ProductService productService;
+
+    private final ObjectMapper objectMapper;
+
+    private final int iterations;
+
+    public CatalogWarmup(
+            ProductService productService,
+            ObjectMapper objectMapper,
+            @Value("${app.warmup.iterations:0}") int iterations) {
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Uma falha no aquecimento nunca impede a inicialização: ela é registrada e a aplicação sobe mesmo assim.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (iterations <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            List<ProductDTO> sample = productService.findSlice(null, ProductService.MAX_PAGE_SIZE, "id").content();
+            for (int i = 0; i < iterations; i++) {
+                String sort = SORTS.get(i % SORTS.size());
+                objectMapper.writeValueAsBytes(productService.findAll(0, 10, sort));
+                objectMapper.writeValueAsBytes(productService.findSlice(null, 10, sort));
+                if (!sample.isEmpty()) {
+                    ProductDTO product = sample.get(i % sample.size());
+                    productService.findVersion(product.id());
+                    productService.findImage(product.id());
+                    objectMapper.writeValueAsBytes(productService.findById(product.id()).orElseThrow());
+                    objectMapper.writeValueAsBytes(productService.search(product.name().split(" ")[0], 0, 10));
+                }
+            }
+            logger.info("Warm-up ran {} iterations over {} products in {} ms", iterations, sample.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Warm-up interrupted: {}", e.getMessage());
+        }
+    }
+}
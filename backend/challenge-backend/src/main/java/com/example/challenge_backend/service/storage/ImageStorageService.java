@@ -0,0 +1,292 @@
+package com.example.challenge_backend.service.storage;
+
+import com.example.challenge_backend.dto.image.ImageDTO;
+import com.example.challenge_backend.exception.ImageTooLargeException;
+import com.example.challenge_backend.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Armazena as imagens dos produtos em disco, endereçadas pelo hash SHA-256 do conteúdo.
+ * As imagens ficam fora da tabela de produtos, que guarda apenas o hash, o tamanho e o tipo do arquivo.
+ * Como o nome do arquivo é o próprio hash, o mesmo conteúdo é gravado uma única vez.
+ * O conteúdo é copiado em blocos de tamanho fixo e o hash é calculado durante a cópia, então o uso de memória não depende do tamanho da imagem.
+ * Uma imagem recém-gravada fica reservada até que o produto que a referencia seja confirmado ou descartado: enquanto isso, o produto
+ * ainda não aparece em outras transações, e a remoção de uma imagem "sem produtos" apagaria o arquivo de que ele vai depender.
+ * Gravação e remoção de um mesmo hash são serializadas por um lock, então a remoção vê a reserva ou a gravação vê o arquivo removido.
+ */
+@Service
+public class ImageStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int LOCK_STRIPES = 64;
+
+    /**
+     * Diretório raiz onde as imagens são gravadas.
+     */
+    private final Path root;
+
+    /**
+     * Diretório onde as imagens recebidas são gravadas antes de o hash ser conhecido.
+     * Fica dentro da raiz para que a movimentação final seja atômica, no mesmo sistema de arquivos.
+     */
+    private final Path incoming;
+
+    /**
+     * Tamanho do bloco usado na cópia das imagens.
+     */
+    private final int bufferSize;
+
+    /**
+     * Tamanho máximo de uma imagem. Vale para qualquer origem, inclusive imagens extraídas do zip da importação em lote,
+     * que não passam pelo limite de upload do multipart.
+     */
+    private final long maxSize;
+
+    /**
+     * Distribuição do tamanho das imagens recebidas.
+     */
+    private final DistributionSummary imageSizes;
+
+    /**
+     * Locks que serializam a gravação e a remoção de cada hash, distribuídos pelo hash.
+     * Quem precisa de mais de um os toma em ordem crescente de índice.
+     */
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    /**
+     * Quantas gravações de cada hash ainda não foram liberadas com release.
+     */
+    private final ConcurrentHashMap<String, Integer> reservations = new ConcurrentHashMap<>();
+
+    public ImageStorageService(
+            @Value("${app.images.storage-dir}") Path root,
+            @Value("${app.images.buffer-size:65536}") int bufferSize,
+            @Value("${app.images.max-size:20MB}") DataSize maxSize,
+            MeterRegistry meterRegistry) throws IOException {
+        this.root = Files.createDirectories(root);
+        this.incoming = Files.createDirectories(root.resolve("incoming"));
+        this.bufferSize = bufferSize;
+        this.maxSize = maxSize.toBytes();
+        this.imageSizes = DistributionSummary.builder("product.image.bytes")
+                .description("Size of stored product images")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Arrays.setAll(locks, i -> new ReentrantLock());
+    }
+
+    /**
+     * Grava o conteúdo de uma imagem e retorna a sua referência.
+     * O conteúdo é lido do stream em blocos, gravado em um arquivo temporário e resumido em SHA-256 no mesmo passo.
+     * Se uma imagem com o mesmo hash já existir, o arquivo temporário é descartado e o existente é reaproveitado.
+     * A cópia é interrompida com ImageTooLargeException assim que o conteúdo passa de app.images.max-size.
+     * A imagem fica reservada, e não é removida por deleteIfUnused, até que quem a gravou chame release.
+     *
+     * @param content     o stream com o conteúdo da imagem; é fechado ao final
+     * @param contentType o tipo da imagem
+     * @return a referência da imagem armazenada
+     */
+    public ImageDTO store(InputStream content, String contentType) {
+        Path temp = null;
+        try (ReadableByteChannel in = Channels.newChannel(content)) {
+            temp = Files.createTempFile(incoming, "upload", ".tmp");
+            MessageDigest digest = sha256();
+            long size = 0;
+
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    if (size + buffer.remaining() > maxSize) {
+                        throw new ImageTooLargeException("Image exceeds the maximum size of " + maxSize + " bytes");
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        size += out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+
+            imageSizes.record(size);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(hash);
+            ReentrantLock lock = lock(hash);
+            lock.lock();
+            try {
+                if (Files.notExists(target)) {
+                    Files.createDirectories(target.getParent());
+                    moveIntoPlace(temp, target);
+                    logger.info("Image stored with hash: {}", hash);
+                }
+                reservations.merge(hash, 1, Integer::sum);
+            } finally {
+                lock.unlock();
+            }
+            return new ImageDTO(hash, size, contentType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Carrega a imagem associada ao hash informado.
+     *
+     * @param hash o hash da imagem
+     * @return o recurso que aponta para o arquivo da imagem
+     */
+    public Resource load(String hash) {
+        Path path = resolve(hash);
+        if (!Files.isRegularFile(path)) {
+            throw new ResourceNotFoundException("Image not found for this hash: " + hash);
+        }
+        return new FileSystemResource(path);
+    }
+
+    /**
+     * Libera a reserva feita por store, depois que o produto que referencia a imagem foi confirmado ou descartado.
+     *
+     * @param hash o hash da imagem gravada
+     */
+    public void release(String hash) {
+        reservations.computeIfPresent(hash, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Remove a imagem associada ao hash informado, caso exista, se ela não estiver reservada por uma gravação em andamento
+     * e nenhum produto confirmado a referenciar. A consulta é feita sob o lock do hash, depois de conferidas as reservas,
+     * então uma gravação concorrente ou já tem a reserva, ou já foi confirmada e aparece na consulta.
+     *
+     * @param hash  o hash da imagem
+     * @param inUse se algum produto confirmado ainda referencia a imagem
+     * @return se a imagem foi removida
+     */
+    public boolean deleteIfUnused(String hash, Predicate<String> inUse) {
+        return !deleteUnused(Set.of(hash), candidates -> inUse.test(hash) ? candidates : Set.of()).isEmpty();
+    }
+
+    /**
+     * Como deleteIfUnused, para várias imagens: os produtos confirmados que ainda as referenciam são consultados uma única vez,
+     * com os locks de todos os hashes, tomados sempre na mesma ordem.
+     *
+     * @param hashes os hashes das imagens
+     * @param inUse  dos hashes informados, os que algum produto confirmado ainda referencia
+     * @return os hashes das imagens removidas
+     */
+    public Set<String> deleteUnused(Set<String> hashes, Function<Set<String>, Collection<String>> inUse) {
+        int[] stripes = hashes.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        try {
+            Set<String> unused = new HashSet<>(hashes);
+            unused.removeIf(reservations::containsKey);
+            if (unused.isEmpty()) {
+                return unused;
+            }
+            unused.removeAll(inUse.apply(Set.copyOf(unused)));
+            unused.removeIf(hash -> !delete(hash));
+            return unused;
+        } finally {
+            for (int stripe : stripes) {
+                locks[stripe].unlock();
+            }
+        }
+    }
+
+    private boolean delete(String hash) {
+        try {
+            if (Files.deleteIfExists(resolve(hash))) {
+                logger.info("Image deleted with hash: {}", hash);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.error("Error deleting image {}: {}", hash, e.getMessage());
+            return false;
+        }
+    }
+
+    private ReentrantLock lock(String hash) {
+        return locks[stripe(hash)];
+    }
+
+    private int stripe(String hash) {
+        return Math.floorMod(hash.hashCode(), LOCK_STRIPES);
+    }
+
+    /**
+     * Resolve o caminho do arquivo de uma imagem.
+     * Os arquivos são distribuídos em subdiretórios pelos dois primeiros caracteres do hash para não concentrar tudo em um único diretório.
+     */
+    private Path resolve(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid image hash: " + hash);
+        }
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary file {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
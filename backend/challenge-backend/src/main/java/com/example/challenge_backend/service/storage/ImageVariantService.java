@@ -0,0 +1,452 @@
+package com.example.challenge_backend.service.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Gera e guarda versões redimensionadas das imagens dos produtos, em larguras fixas (app.images.variant-widths).
+ * As versões são geradas em segundo plano logo após o upload, por um pool de threads com fila limitada. Uma requisição que não
+ * encontra a versão (a fila estava cheia ou a geração ainda não terminou) recebe a original e agenda a geração no mesmo pool:
+ * as originais, de até max-pixels pixels (cerca de 160 MB decodificadas), só são decodificadas pelas workers threads,
+ * nunca pela thread da requisição. O redimensionamento usa apenas o ImageIO do JDK.
+ * As versões ficam em disco, em um cache limitado por tamanho total (app.images.variants.max-size) que descarta as menos usadas.
+ * Antes de decodificar a original, as dimensões são lidas do cabeçalho; imagens com mais de app.images.variants.max-pixels pixels
+ * não são decodificadas, já que alguns KB de PNG podem declarar dimensões que ocupariam gigabytes de memória, e a original é servida.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStorageService imageStorageService;
+
+    /**
+     * Diretório das versões redimensionadas, dentro da raiz das imagens.
+     */
+    private final Path directory;
+
+    /**
+     * Larguras geradas, em ordem crescente.
+     */
+    private final int[] widths;
+
+    private final long maxBytes;
+
+    /**
+     * Maior número de pixels (largura vezes altura) de uma original que pode ser decodificada.
+     */
+    private final long maxPixels;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Versões em disco e seus tamanhos, em ordem de acesso: a primeira é a usada há mais tempo.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long totalBytes;
+
+    /**
+     * Versões que não existem porque a original é estreita demais ou não pôde ser decodificada; nesses casos a original é servida
+     * sem decodificá-la de novo a cada requisição.
+     */
+    private final Cache<String, Boolean> originalOnly = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    /**
+     * Imagens com geração agendada ou em andamento, para que várias requisições da mesma imagem não a agendem de novo.
+     */
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+
+    public ImageVariantService(
+            ImageStorageService imageStorageService,
+            @Value("${app.images.storage-dir}") Path root,
+            @Value("${app.images.variant-widths:64,256,1024}") List<Integer> widths,
+            @Value("${app.images.variants.max-size:256MB}") DataSize maxSize,
+            @Value("${app.images.variants.max-pixels:40000000}") long maxPixels,
+            @Value("${app.images.variants.workers:2}") int workers,
+            @Value("${app.images.variants.queue-capacity:100}") int queueCapacity) throws IOException {
+        this.imageStorageService = imageStorageService;
+        this.directory = Files.createDirectories(root.resolve("variants"));
+        this.widths = widths.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+        this.maxBytes = maxSize.toBytes();
+        this.maxPixels = maxPixels;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        loadExisting();
+    }
+
+    /**
+     * Escolhe a largura de versão que atende a largura pedida: a menor que seja maior ou igual a ela.
+     * Pedidos maiores que a maior largura são atendidos pela imagem original.
+     *
+     * @param requested a largura pedida
+     * @return a largura da versão, ou vazio se a original deve ser usada
+     */
+    public OptionalInt widthFor(int requested) {
+        for (int width : widths) {
+            if (width >= requested) {
+                return OptionalInt.of(width);
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Agenda a geração de todas as versões de uma imagem, sem bloquear quem chama.
+     * Se a imagem já estiver agendada, nada muda; se a fila estiver cheia, o pedido é descartado e a geração
+     * será agendada de novo pela próxima requisição que não encontrar a versão.
+     *
+     * @param hash        o hash da imagem original
+     * @param contentType o tipo da imagem original
+     */
+    public void generateAsync(String hash, String contentType) {
+        if (!scheduled.add(hash)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    // A original é decodificada uma única vez para todas as larguras
+                    OriginalImage original = new OriginalImage(hash);
+                    for (int i = widths.length - 1; i >= 0; i--) {
+                        try {
+                            variant(hash, contentType, widths[i], original);
+                        } catch (RuntimeException e) {
+                            logger.warn("Could not generate {}px variant of image {}: {}", widths[i], hash, e.getMessage());
+                        }
+                    }
+                } finally {
+                    scheduled.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(hash);
+            logger.debug("Image variant queue is full; variants of image {} will be generated on a later request", hash);
+        }
+    }
+
+    /**
+     * Devolve a versão de uma imagem na largura informada, se ela já existir.
+     * Se ainda não existir, a geração é agendada em segundo plano e a original deve ser servida por enquanto.
+     * Também não há versão quando a original já é estreita o bastante ou não pode ser decodificada; ver {@link #servesOriginal}.
+     *
+     * @param hash        o hash da imagem original
+     * @param contentType o tipo da imagem original
+     * @param width       uma das larguras configuradas
+     * @return o arquivo da versão, ou vazio se a original deve ser usada
+     */
+    public Optional<Resource> variant(String hash, String contentType, int width) {
+        Optional<Resource> existing = existing(key(hash, width));
+        if (existing.isEmpty() && !servesOriginal(hash, width)) {
+            generateAsync(hash, contentType);
+        }
+        return existing;
+    }
+
+    /**
+     * Indica se a largura informada é atendida em definitivo pela original, porque ela é estreita demais ou não pode ser decodificada.
+     * Uma versão ainda não gerada não conta: a original é servida só até a geração terminar.
+     *
+     * @param hash  o hash da imagem original
+     * @param width uma das larguras configuradas
+     * @return se a original é a resposta definitiva para essa largura
+     */
+    public boolean servesOriginal(String hash, int width) {
+        return originalOnly.getIfPresent(key(hash, width)) != null;
+    }
+
+    private Optional<Resource> existing(String key) {
+        Path path = directory.resolve(key);
+        synchronized (entries) {
+            if (entries.get(key) != null && Files.isRegularFile(path)) {
+                return Optional.of(new FileSystemResource(path));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Gera a versão, se ainda não existir. Só roda nas threads do pool, uma tarefa por imagem de cada vez.
+     */
+    private void variant(String hash, String contentType, int width, OriginalImage original) {
+        String key = key(hash, width);
+        if (existing(key).isPresent() || originalOnly.getIfPresent(key) != null) {
+            return;
+        }
+        if (generate(key, original.image(), contentType, width, directory.resolve(key)).isEmpty()) {
+            originalOnly.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Remove todas as versões de uma imagem. Chamado quando a imagem original deixa de ser usada.
+     *
+     * @param hash o hash da imagem original
+     */
+    public void delete(String hash) {
+        for (int width : widths) {
+            String key = key(hash, width);
+            originalOnly.invalidate(key);
+            synchronized (entries) {
+                Long size = entries.remove(key);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            deleteQuietly(directory.resolve(key));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Optional<Path> generate(String key, BufferedImage original, String contentType, int width, Path path) {
+        if (original == null || original.getWidth() <= width) {
+            return Optional.empty();
+        }
+
+        boolean png = "image/png".equals(contentType);
+        BufferedImage resized = resize(original, width, png);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, key, ".tmp");
+            write(resized, png, temp);
+            long size = Files.size(temp);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            register(key, size);
+            return Optional.of(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write image variant " + key, e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Reduz a imagem mantendo a proporção. Reduções grandes são feitas pela metade a cada passo,
+     * o que evita o serrilhado da interpolação bilinear aplicada de uma vez só.
+     */
+    private static BufferedImage resize(BufferedImage original, int width, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int targetHeight = Math.max(1, (int) Math.round((double) original.getHeight() * width / original.getWidth()));
+        BufferedImage current = original;
+        int currentWidth = original.getWidth();
+        int currentHeight = original.getHeight();
+        do {
+            int nextWidth = Math.max(width, currentWidth / 2);
+            int nextHeight = nextWidth == width ? targetHeight : Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    private static void write(BufferedImage image, boolean png, Path target) throws IOException {
+        if (png) {
+            if (!ImageIO.write(image, "png", target.toFile())) {
+                throw new IOException("No PNG writer available");
+            }
+            return;
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Registra uma versão nova no cache e descarta as usadas há mais tempo até o total voltar ao limite.
+     */
+    private void register(String key, long size) {
+        synchronized (entries) {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                eldest.remove();
+                deleteQuietly(directory.resolve(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Carrega as versões já existentes em disco, das modificadas há mais tempo para as mais recentes.
+     */
+    private void loadExisting() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                    .sorted(Comparator.comparing(ImageVariantService::lastModified))
+                    .forEach(file -> {
+                        try {
+                            register(file.getFileName().toString(), Files.size(file));
+                        } catch (IOException e) {
+                            logger.warn("Could not read image variant {}: {}", file, e.getMessage());
+                        }
+                    });
+        }
+        // Arquivos temporários são restos de gerações interrompidas
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".tmp")).forEach(this::deleteQuietly);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Imagem original decodificada sob demanda, no máximo uma vez.
+     */
+    private final class OriginalImage {
+
+        private final String hash;
+
+        private BufferedImage image;
+
+        private boolean decoded;
+
+        private OriginalImage(String hash) {
+            this.hash = hash;
+        }
+
+        /**
+         * @return a imagem decodificada, ou null se o ImageIO não reconhecer o formato ou se ela passar de max-pixels
+         */
+        private BufferedImage image() {
+            if (!decoded) {
+                try (InputStream content = imageStorageService.load(hash).getInputStream();
+                     ImageInputStream input = ImageIO.createImageInputStream(content)) {
+                    image = input == null ? null : read(input);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read image " + hash, e);
+                }
+                decoded = true;
+            }
+            return image;
+        }
+
+        private BufferedImage read(ImageInputStream input) throws IOException {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Só o cabeçalho é lido aqui; a decodificação alocaria largura * altura pixels de uma vez
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.warn("Image {} has {} pixels, more than the limit of {}; serving the original", hash, pixels, maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static String key(String hash, int width) {
+        return hash + "-" + width;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete image variant {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Tabela de produtos. A imagem fica em disco, endereçada pelo hash; a tabela guarda só a referência.
+create sequence product_seq start with 1 increment by 50;
+
+create table product (
+    id bigint not null,
+    name varchar(100) not null,
+    price numeric(38,2) not null check ((price <= 10000) and (price >= 0)),
+    description varchar(400) not null,
+    image_hash varchar(64) not null,
+    image_size bigint,
+    image_content_type varchar(255),
+    version bigint,
+    primary key (id)
+);
+
+-- Ordenação por nome e por preço, desempatada pelo id. Servem também às ordenações só por nome ou só por preço,
+-- e à paginação por cursor, que continua a partir de (coluna, id).
+create index idx_product_name_id on product (name, id);
+create index idx_product_price_id on product (price, id);
+
+-- Limpeza das imagens: existsByImageHash é consultado a cada troca ou remoção de imagem.
+create index idx_product_image_hash on product (image_hash);
@@ -0,0 +1,5 @@
+-- Ordenações decrescentes da listagem (sort=name,desc, price,desc e id,desc). O H2 não percorre um índice de trás para frente,
+-- então cada sentido precisa do seu índice; sem eles, a ordenação decrescente leria e ordenaria a tabela inteira a cada página.
+create index idx_product_name_id_desc on product (name desc, id desc);
+create index idx_product_price_id_desc on product (price desc, id desc);
+create index idx_product_id_desc on product (id desc);
@@ -0,0 +1,32 @@
+package com.example.challenge_backend;
+
+import com.example.challenge_backend.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Produtos gerados para os testes que precisam de um catálogo maior do que o cadastrado pela API.
+ * A imagem é apenas uma referência; o arquivo não é gravado.
+ */
+public final class ProductFixtures {
+
+	private ProductFixtures() {
+	}
+
+	public static List<Product> products(int count) {
+		List<Product> products = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Product product = new Product();
+			product.setName("Produto " + i);
+			product.setPrice(BigDecimal.valueOf(i % 1000));
+			product.setDescription("Descrição do produto número " + i + " com um texto de tamanho parecido com o real");
+			product.setImageHash("%064x".formatted(i));
+			product.setImageSize(1024L);
+			product.setImageContentType("image/png");
+			products.add(product);
+		}
+		return products;
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.challenge_backend.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveLimiterTests {
+
+	private static final long MILLIS = 1_000_000;
+
+	@Test
+	void limitGrowsWhileLatencyHoldsAndShrinksWhenItClimbs() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(new AdmissionProperties.LimiterClass(4, 2, 32, 0, Duration.ZERO, 1.5, null));
+
+		// Com todas as vagas em uso e a latência estável, o limite sobe até o máximo
+		for (int i = 0; i < 200; i++) {
+			saturate(limiter, 10 * MILLIS);
+		}
+		assertEquals(32, limiter.limit());
+
+		// A latência passa de 10 ms para 40 ms: o banco saturou e o limite cai até o mínimo
+		for (int i = 0; i < 20; i++) {
+			saturate(limiter, 40 * MILLIS);
+		}
+		assertEquals(2, limiter.limit());
+	}
+
+	@Test
+	void idleLimiterDoesNotGrow() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(new AdmissionProperties.LimiterClass(8, 1, 32, 0, Duration.ZERO, 1.5, null));
+
+		for (int i = 0; i < 200; i++) {
+			assertEquals(AdaptiveLimiter.Admission.ADMITTED, limiter.acquire());
+			limiter.release(10 * MILLIS);
+		}
+
+		assertEquals(8, limiter.limit());
+		assertEquals(0, limiter.inFlight());
+	}
+
+	@Test
+	void requestsBeyondLimitWithoutQueueAreRejected() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(new AdmissionProperties.LimiterClass(2, 2, 2, 0, Duration.ZERO, 1.5, null));
+
+		assertEquals(AdaptiveLimiter.Admission.ADMITTED, limiter.acquire());
+		assertEquals(AdaptiveLimiter.Admission.ADMITTED, limiter.acquire());
+		assertEquals(AdaptiveLimiter.Admission.QUEUE_FULL, limiter.acquire());
+		assertEquals(2, limiter.inFlight());
+		assertEquals(0, limiter.queued());
+	}
+
+	/**
+	 * Ocupa todas as vagas e devolve todas com a latência informada.
+	 */
+	private static void saturate(AdaptiveLimiter limiter, long rttNanos) {
+		while (limiter.acquire() == AdaptiveLimiter.Admission.ADMITTED) {
+		}
+		while (limiter.inFlight() > 0) {
+			limiter.release(rttNanos);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.example.challenge_backend.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Cada classe aqui tem uma única vaga; uma requisição presa no controlador ocupa a vaga enquanto as demais são testadas.
+ */
+@Timeout(10)
+class AdmissionControlFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final AdmissionControlFilter filter = new AdmissionControlFilter(new AdmissionProperties(
+			Map.of(
+					"search", new AdmissionProperties.LimiterClass(1, 1, 1, 0, null, null, Duration.ofMillis(1500)),
+					"listing", new AdmissionProperties.LimiterClass(1, 1, 1, 1, Duration.ofMillis(50), null, null)),
+			Map.of(
+					"/api/products/search", Map.of("get", new AdmissionProperties.Endpoint("search", null)),
+					"/api/products", Map.of("get", new AdmissionProperties.Endpoint("listing", 1000L)))),
+			meterRegistry, new ObjectMapper());
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private final CountDownLatch entered = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void fullClassRejectsAtOnceWhileOtherEndpointsPassThrough() throws Exception {
+		occupy(request("/api/products/search"));
+
+		MockHttpServletResponse rejected = perform(request("/api/products/search"));
+		MockHttpServletResponse cheap = perform(request("/api/products/1"));
+
+		assertEquals(429, rejected.getStatus());
+		assertEquals("2", rejected.getHeader("Retry-After"));
+		assertEquals(429, new ObjectMapper().readTree(rejected.getContentAsByteArray()).get("statusCode").asInt());
+		assertEquals(200, cheap.getStatus());
+		assertEquals(1, meterRegistry.get(AdmissionControlFilter.REJECTED_COUNTER)
+				.tags("class", "search", "reason", "queue_full").counter().count());
+	}
+
+	@Test
+	void queuedRequestGetsServiceUnavailableAfterMaxWait() throws Exception {
+		occupy(request("/api/products", "page", "100", "size", "20"));
+
+		MockHttpServletResponse timedOut = perform(request("/api/products", "page", "100", "size", "20"));
+		MockHttpServletResponse firstPage = perform(request("/api/products", "page", "0", "size", "20"));
+
+		assertEquals(503, timedOut.getStatus());
+		assertEquals("1", timedOut.getHeader("Retry-After"));
+		assertEquals(200, firstPage.getStatus());
+		assertNull(firstPage.getHeader("Retry-After"));
+		assertEquals(1, meterRegistry.get(AdmissionControlFilter.WAIT_TIMER).tags("class", "listing").timer().count());
+	}
+
+	/**
+	 * Envia a requisição em outra thread e espera até que ela esteja no controlador, ocupando a vaga da classe.
+	 */
+	private void occupy(MockHttpServletRequest request) throws InterruptedException {
+		FilterChain blocking = (req, res) -> {
+			entered.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		executor.submit(() -> {
+			filter.doFilter(request, new MockHttpServletResponse(), blocking);
+			return null;
+		});
+		entered.await();
+	}
+
+	private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, (req, res) -> {
+		});
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String uri, String... parameters) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		for (int i = 0; i < parameters.length; i += 2) {
+			request.addParameter(parameters[i], parameters[i + 1]);
+		}
+		return request;
+	}
+}
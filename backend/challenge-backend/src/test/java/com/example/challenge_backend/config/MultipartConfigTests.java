@@ -0,0 +1,75 @@
+package com.example.challenge_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Os limites de upload são aplicados pelo Tomcat, então o teste usa um servidor de verdade, com limites pequenos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:multipart-limits",
+		"spring.servlet.multipart.max-file-size=4KB",
+		"spring.servlet.multipart.max-request-size=5KB",
+		"app.import.max-file-size=1MB",
+		"app.import.max-request-size=1MB"
+})
+class MultipartConfigTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void uploadsAboveTheGlobalLimitAreRejected() {
+		MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+		form.add("name", "Cadeira");
+		form.add("price", "10");
+		form.add("description", "Cadeira de madeira");
+		form.add("image", part("image.png", MediaType.IMAGE_PNG, new byte[8 * 1024]));
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/api/products", form, String.class);
+
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+	}
+
+	@Test
+	void bulkImportAcceptsFilesAboveTheGlobalLimit() {
+		StringBuilder rows = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			rows.append("{\"name\":\"Produto ").append(i).append("\",\"price\":10,\"description\":\"Descrição do produto\"}\n");
+		}
+		byte[] file = rows.toString().getBytes(StandardCharsets.UTF_8);
+		assertTrue(file.length > 8 * 1024);
+		MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+		form.add("file", part("products.ndjson", MediaType.APPLICATION_NDJSON, file));
+
+		ResponseEntity<String> response = restTemplate.postForEntity("/api/products/bulk", form, String.class);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode(), response.getBody());
+	}
+
+	private static HttpEntity<ByteArrayResource> part(String filename, MediaType contentType, byte[] content) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(contentType);
+		return new HttpEntity<>(new ByteArrayResource(content) {
+			@Override
+			public String getFilename() {
+				return filename;
+			}
+		}, headers);
+	}
+}
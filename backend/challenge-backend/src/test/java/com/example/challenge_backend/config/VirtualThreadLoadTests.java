@@ -0,0 +1,211 @@
+package com.example.challenge_backend.config;
+
+import com.example.challenge_backend.ChallengeBackendApplication;
+import com.example.challenge_backend.ProductFixtures;
+import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.service.search.ProductSearchIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Teste de carga que compara o modo de threads de plataforma com o modo de virtual threads.
+ * A aplicação é iniciada uma vez em cada modo, com a mesma massa de dados, e recebe requisições de busca e listagem
+ * de muitos clientes simultâneos por um tempo fixo; ao final são registrados no log a vazão, a latência p99 e o uso do pool de conexões
+ * de cada modo. O teste falha se alguma requisição não for atendida ou se o pool passar de maximum-pool-size.
+ * Com virtual threads, as requisições excedentes devem esperar no semáforo do VirtualThreadConfig, e não dentro do pool;
+ * o número de threads esperando por uma conexão aparece no log, mas não é verificado, pois o Hikari conta como esperando
+ * também quem está só procurando uma conexão livre.
+ * Só roda quando pedido explicitamente, em Java 21: mvn -Pjava21 test -Dtest=VirtualThreadLoadTests -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadTests.class);
+
+	private static final int PRODUCTS = 5000;
+	private static final int CLIENTS = Integer.getInteger("loadtest.clients", 400);
+	private static final Duration WARMUP = Duration.ofSeconds(5);
+	private static final Duration DURATION = Duration.ofSeconds(Long.getLong("loadtest.seconds", 20));
+
+	@Test
+	void compareVirtualAndPlatformThreads() throws Exception {
+		assumeTrue(Runtime.version().feature() >= 21, "virtual threads need Java 21 (build with -Pjava21)");
+
+		Result platform = run(false);
+		Result virtual = run(true);
+
+		logger.info("platform threads: {}", platform);
+		logger.info("virtual threads:  {}", virtual);
+		assertEquals(0, platform.errors(), "platform thread mode should answer every request");
+		assertEquals(0, virtual.errors(), "virtual thread mode should answer every request");
+		assertTrue(platform.peakConnections() <= platform.maxPoolSize(),
+				"platform thread mode used " + platform.peakConnections() + " connections, over the pool size " + platform.maxPoolSize());
+		assertTrue(virtual.peakConnections() <= virtual.maxPoolSize(),
+				"virtual thread mode used " + virtual.peakConnections() + " connections, over the pool size " + virtual.maxPoolSize());
+	}
+
+	private Result run(boolean virtualThreads) throws Exception {
+		String mode = virtualThreads ? "virtual" : "platform";
+		// Argumentos de linha de comando, e não properties(), que só define padrões e perderia para o application.properties
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeBackendApplication.class)
+				.run(
+						"--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreads,
+						// Compara os modos de execução sem recusas do controle de admissão
+						"--app.admission.enabled=false",
+						"--spring.datasource.url=jdbc:h2:mem:load-" + mode,
+						"--app.images.storage-dir=" + Files.createTempDirectory("load-" + mode),
+						"--logging.level.com.example.challenge_backend=WARN",
+						"--logging.level." + VirtualThreadLoadTests.class.getName() + "=INFO")) {
+			seed(context);
+			int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+			HikariDataSource dataSource = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+			load(port, WARMUP, dataSource);
+			return load(port, DURATION, dataSource);
+		}
+	}
+
+	private void seed(ConfigurableApplicationContext context) {
+		context.getBean(ProductRepository.class).saveAll(ProductFixtures.products(PRODUCTS));
+		context.getBean(ProductSearchIndex.class).rebuild();
+	}
+
+	private Result load(int port, Duration duration, HikariDataSource dataSource) throws Exception {
+		HttpClient client = HttpClient.newHttpClient();
+		ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+		long deadline = System.nanoTime() + duration.toNanos();
+		PoolSampler pool = new PoolSampler(dataSource.getHikariPoolMXBean());
+		pool.start();
+		try {
+			List<Future<long[]>> futures = new ArrayList<>();
+			for (int i = 0; i < CLIENTS; i++) {
+				futures.add(clients.submit(() -> requests(client, port, deadline)));
+			}
+
+			long[] latencies = new long[0];
+			long errors = 0;
+			for (Future<long[]> future : futures) {
+				long[] clientLatencies = future.get();
+				int count = latencies.length;
+				latencies = Arrays.copyOf(latencies, count + clientLatencies.length);
+				for (long latency : clientLatencies) {
+					if (latency < 0) {
+						errors++;
+					} else {
+						latencies[count++] = latency;
+					}
+				}
+				latencies = Arrays.copyOf(latencies, count);
+			}
+			Arrays.sort(latencies);
+			long p99 = latencies.length == 0 ? 0 : latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+			pool.finish();
+			return new Result(latencies.length / (double) duration.toSeconds(), p99 / 1_000_000.0, errors,
+					pool.peakActive, pool.peakAwaiting, dataSource.getMaximumPoolSize());
+		} finally {
+			pool.interrupt();
+			clients.shutdownNow();
+		}
+	}
+
+	/**
+	 * Alterna entre a busca e a listagem até o prazo acabar. Requisições com erro são registradas com latência negativa.
+	 */
+	private static long[] requests(HttpClient client, int port, long deadline) {
+		long[] latencies = new long[1024];
+		int count = 0;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		while (System.nanoTime() < deadline) {
+			String path = random.nextBoolean()
+					? "/api/products/search?query=produto+" + random.nextInt(1000) + "&page=0&size=20"
+					: "/api/products?page=" + random.nextInt(PRODUCTS / 20) + "&size=20&sort=price";
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+			long start = System.nanoTime();
+			long latency;
+			try {
+				HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+				latency = response.statusCode() == 200 ? System.nanoTime() - start : -1;
+			} catch (Exception e) {
+				latency = -1;
+			}
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latency;
+		}
+		return Arrays.copyOf(latencies, count);
+	}
+
+	/**
+	 * Lê o pool do Hikari a cada milissegundo durante a carga e guarda o maior número de conexões em uso
+	 * e de threads esperando por uma conexão.
+	 */
+	private static final class PoolSampler extends Thread {
+
+		private final HikariPoolMXBean pool;
+
+		private volatile boolean running = true;
+
+		private int peakActive;
+
+		private int peakAwaiting;
+
+		private PoolSampler(HikariPoolMXBean pool) {
+			super("pool-sampler");
+			this.pool = pool;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				peakActive = Math.max(peakActive, pool.getActiveConnections());
+				peakAwaiting = Math.max(peakAwaiting, pool.getThreadsAwaitingConnection());
+				try {
+					Thread.sleep(1);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+
+		private void finish() throws InterruptedException {
+			running = false;
+			join();
+		}
+	}
+
+	private record Result(double throughput, double p99Millis, long errors,
+						  int peakConnections, int peakAwaitingConnection, int maxPoolSize) {
+
+		@Override
+		public String toString() {
+			return "%.0f req/s, p99 %.1f ms, %d errors, peak %d/%d connections, peak %d awaiting connection"
+					.formatted(throughput, p99Millis, errors, peakConnections, maxPoolSize, peakAwaitingConnection);
+		}
+	}
+}
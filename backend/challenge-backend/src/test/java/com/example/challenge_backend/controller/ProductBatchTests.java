@@ -0,0 +1,118 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-batch")
+@AutoConfigureMockMvc
+class ProductBatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private long first;
+
+	private long second;
+
+	@BeforeEach
+	void createProducts() throws Exception {
+		first = create("Cadeira", "10");
+		second = create("Mesa", "20");
+	}
+
+	@Test
+	void batchGetReturnsProductsInRequestedOrderAndReportsMissingIds() throws Exception {
+		post("/api/products/batch-get", "{\"ids\": [" + second + ", 999999, " + first + ", " + second + "]}")
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.products.length()").value(2))
+				.andExpect(jsonPath("$.products[0].id").value(second))
+				.andExpect(jsonPath("$.products[0].name").value("Mesa"))
+				.andExpect(jsonPath("$.products[1].id").value(first))
+				.andExpect(jsonPath("$.missing[0]").value(999999));
+	}
+
+	@Test
+	void batchPriceUpdateChangesEachProductAndItsVersion() throws Exception {
+		post("/api/products/batch-price", "{\"prices\": [{\"id\": " + first + ", \"price\": 15}, {\"id\": 999999, \"price\": 1},"
+				+ " {\"id\": " + second + ", \"price\": 20}]}")
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.products[0].price").value(15))
+				.andExpect(jsonPath("$.products[0].version").value(1))
+				.andExpect(jsonPath("$.products[1].price").value(20))
+				.andExpect(jsonPath("$.products[1].version").value(0))
+				.andExpect(jsonPath("$.missing[0]").value(999999));
+
+		mockMvc.perform(get("/api/products/{id}", first))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.price").value(15));
+	}
+
+	@Test
+	void invalidPriceRejectsTheWholeBatch() throws Exception {
+		post("/api/products/batch-price", "{\"prices\": [{\"id\": " + first + ", \"price\": 15}, {\"id\": " + second + ", \"price\": -1}]}")
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/api/products/{id}", first))
+				.andExpect(jsonPath("$.price").value(10));
+	}
+
+	@Test
+	void batchDeleteRemovesTheProductsAndReportsMissingIds() throws Exception {
+		post("/api/products/batch-delete", "{\"ids\": [" + first + ", 999999, " + second + "]}")
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.deleted[0]").value(first))
+				.andExpect(jsonPath("$.deleted[1]").value(second))
+				.andExpect(jsonPath("$.missing[0]").value(999999));
+
+		mockMvc.perform(get("/api/products/{id}", first)).andExpect(status().isNotFound());
+		post("/api/products/batch-get", "{\"ids\": [" + first + ", " + second + "]}")
+				.andExpect(jsonPath("$.products.length()").value(0));
+	}
+
+	@Test
+	void emptyOrOversizedBatchesAreRejected() throws Exception {
+		post("/api/products/batch-get", "{\"ids\": []}").andExpect(status().isBadRequest());
+		post("/api/products/batch-delete", "{\"ids\": [" + IntStream.rangeClosed(1, 501).mapToObj(Integer::toString)
+				.collect(Collectors.joining(",")) + "]}")
+				.andExpect(status().isBadRequest());
+	}
+
+	private ResultActions post(String uri, String body) throws Exception {
+		return mockMvc.perform(MockMvcRequestBuilders.post(uri)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(body));
+	}
+
+	private long create(String name, String price) throws Exception {
+		String body = mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", name.getBytes()))
+						.param("name", name)
+						.param("price", price)
+						.param("description", "Descrição"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode product = objectMapper.readTree(body);
+		return product.get("id").asLong();
+	}
+}
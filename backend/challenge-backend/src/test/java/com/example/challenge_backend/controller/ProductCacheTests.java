@@ -0,0 +1,82 @@
+package com.example.challenge_backend.controller;
+
+import com.example.challenge_backend.metrics.QueryBudgetFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A primeira leitura de um produto vai ao banco uma única vez e as seguintes vêm do cache;
+ * depois de uma alteração, o cache já traz o produto confirmado, sem nova consulta.
+ */
+@SpringBootTest(properties = {
+		"app.query-budget.header=true",
+		"spring.datasource.url=jdbc:h2:mem:product-cache"
+})
+@AutoConfigureMockMvc
+class ProductCacheTests {
+
+	private static final String ONE_SELECT = "statements=1; rows=1; lobBytes=0";
+
+	private static final String CACHED = "statements=0; rows=0; lobBytes=0";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void readAfterUpdateSeesFreshDataFromTheCache() throws Exception {
+		String body = mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1}))
+						.param("name", "Cadeira")
+						.param("price", "10")
+						.param("description", "Cadeira de madeira"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		long id = objectMapper.readTree(body).get("id").asLong();
+
+		read(id, ONE_SELECT).andExpect(jsonPath("$.name").value("Cadeira"));
+		read(id, CACHED).andExpect(jsonPath("$.name").value("Cadeira"));
+
+		mockMvc.perform(multipart("/api/products/{id}", id)
+						.param("name", "Mesa")
+						.param("price", "11")
+						.param("description", "Mesa de madeira")
+						.with(request -> {
+							request.setMethod("PUT");
+							return request;
+						}))
+				.andExpect(status().isOk());
+
+		read(id, CACHED).andExpect(jsonPath("$.name").value("Mesa")).andExpect(jsonPath("$.price").value(11));
+
+		// A alteração de preços em lote grava o produto no cache dentro da transação; a gravação vale no commit
+		mockMvc.perform(post("/api/products/batch-price")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"prices\": [{\"id\": " + id + ", \"price\": 30}]}"))
+				.andExpect(status().isOk());
+
+		read(id, CACHED).andExpect(jsonPath("$.price").value(30)).andExpect(jsonPath("$.version").value(2));
+	}
+
+	private ResultActions read(long id, String queryStats) throws Exception {
+		return mockMvc.perform(get("/api/products/{id}", id))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, queryStats));
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-cbor")
+@AutoConfigureMockMvc
+class ProductCborTests {
+
+	private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final CBORMapper cborMapper = new CBORMapper();
+
+	private long id;
+
+	@BeforeEach
+	void createProduct() throws Exception {
+		String body = mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1, 2, 3}))
+						.param("name", "Cadeira")
+						.param("price", "10.50")
+						.param("description", "Cadeira de madeira"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		id = objectMapper.readTree(body).get("id").asLong();
+	}
+
+	@Test
+	void productAndPageAreEncodedInCborWhenAsked() throws Exception {
+		MockHttpServletResponse json = mockMvc.perform(get("/api/products/{id}", id).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		MockHttpServletResponse cbor = mockMvc.perform(get("/api/products/{id}", id).accept(CBOR))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+
+		assertThat(cbor.getContentType()).isEqualTo("application/cbor");
+		assertThat(cbor.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+		JsonNode product = cborMapper.readTree(cbor.getContentAsByteArray());
+		// Os nós numéricos têm tipos diferentes nos dois formatos (o CBOR guarda o preço como decimal), então a comparação é pelo texto
+		assertThat(product.toString()).isEqualTo(objectMapper.readTree(json.getContentAsString()).toString());
+		assertThat(product.get("price").decimalValue()).isEqualByComparingTo(new BigDecimal("10.50"));
+		assertThat(cbor.getContentAsByteArray().length).isLessThan(json.getContentAsByteArray().length);
+
+		MockHttpServletResponse page = mockMvc.perform(get("/api/products").accept(CBOR))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		assertThat(page.getContentType()).isEqualTo("application/cbor");
+		assertThat(cborMapper.readTree(page.getContentAsByteArray()).get("content").get(0).get("name").asText()).isEqualTo("Cadeira");
+	}
+
+	@Test
+	void jsonStaysTheDefault() throws Exception {
+		assertThat(mockMvc.perform(get("/api/products/{id}", id).accept(MediaType.ALL))
+				.andReturn().getResponse().getContentType()).isEqualTo("application/json");
+		assertThat(mockMvc.perform(get("/api/products").header(HttpHeaders.ACCEPT, "application/json, text/plain, */*"))
+				.andReturn().getResponse().getContentType()).isEqualTo("application/json");
+	}
+}
@@ -0,0 +1,116 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * O ETag devolvido por uma leitura, reenviado no If-None-Match, resulta em 304 enquanto o produto não muda; depois de um PUT
+ * ou PATCH, o ETag muda e a leitura volta a trazer o corpo.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-etag")
+@AutoConfigureMockMvc
+class ProductEtagTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private long id;
+
+	@BeforeEach
+	void createProduct() throws Exception {
+		String body = mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1}))
+						.param("name", "Luminária")
+						.param("price", "10")
+						.param("description", "Luminária de mesa"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		id = objectMapper.readTree(body).get("id").asLong();
+	}
+
+	@Test
+	void productEtagIsReplayableUntilPutOrPatch() throws Exception {
+		String original = etagOf(get("/api/products/{id}", id));
+		notModified(get("/api/products/{id}", id), original);
+
+		mockMvc.perform(multipart("/api/products/{id}", id)
+						.param("name", "Luminária")
+						.param("price", "12")
+						.param("description", "Luminária de mesa")
+						.with(request -> {
+							request.setMethod("PUT");
+							return request;
+						}))
+				.andExpect(status().isOk());
+		String afterPut = etagOf(get("/api/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, original));
+		assertThat(afterPut).isNotEqualTo(original);
+		notModified(get("/api/products/{id}", id), afterPut);
+
+		String patched = mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, afterPut)
+						.content("{\"price\": 15}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(patched).isNotEqualTo(afterPut);
+		assertThat(etagOf(get("/api/products/{id}", id).header(HttpHeaders.IF_NONE_MATCH, afterPut))).isEqualTo(patched);
+		notModified(get("/api/products/{id}", id), patched);
+	}
+
+	@Test
+	void pageEtagsAreReplayableUntilAProductChanges() throws Exception {
+		String page = etagOf(get("/api/products").param("sort", "id"));
+		String search = etagOf(get("/api/products/search").param("query", "luminaria"));
+		notModified(get("/api/products").param("sort", "id"), page);
+		notModified(get("/api/products/search").param("query", "luminaria"), search);
+
+		String current = etagOf(get("/api/products/{id}", id));
+		mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, current)
+						.content("{\"description\": \"Luminária de chão\"}"))
+				.andExpect(status().isOk());
+
+		String changedPage = etagOf(get("/api/products").param("sort", "id").header(HttpHeaders.IF_NONE_MATCH, page));
+		String changedSearch = etagOf(get("/api/products/search").param("query", "luminaria").header(HttpHeaders.IF_NONE_MATCH, search));
+		assertThat(changedPage).isNotEqualTo(page);
+		assertThat(changedSearch).isNotEqualTo(search);
+		notModified(get("/api/products").param("sort", "id"), changedPage);
+	}
+
+	/**
+	 * Executa a leitura, que deve trazer o corpo, e devolve o ETag da resposta.
+	 */
+	private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+		String etag = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etag).isNotBlank();
+		return etag;
+	}
+
+	private void notModified(MockHttpServletRequestBuilder request, String etag) throws Exception {
+		mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+}
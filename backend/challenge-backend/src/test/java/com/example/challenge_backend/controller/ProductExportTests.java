@@ -0,0 +1,130 @@
+package com.example.challenge_backend.controller;
+
+import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.service.export.ContentCoding;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exercita a exportação em um servidor real, já que a compressão das listagens é feita pelo Tomcat.
+ * O catálogo tem mais produtos que o intervalo de flush da exportação, para que a resposta seja enviada em vários blocos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.url=jdbc:h2:mem:product-export")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductExportTests {
+
+	private static final int PRODUCTS = 2500;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@BeforeAll
+	void createCatalog() {
+		productRepository.saveAll(IntStream.range(0, PRODUCTS)
+				.mapToObj(i -> new Product(null, "Produto " + i, BigDecimal.valueOf(i % 100), "Descrição " + i,
+						"a".repeat(64), 1L, "image/png", null))
+				.toList());
+	}
+
+	@Test
+	void exportsNdjsonOneProductPerLineInIdOrder() throws Exception {
+		HttpResponse<InputStream> response = get("/api/products/export", null);
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/x-ndjson"));
+		assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+		List<String> lines = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8)).lines().toList();
+		assertThat(lines).hasSize(PRODUCTS);
+		long previous = 0;
+		for (String line : lines) {
+			long id = objectMapper.readTree(line).get("id").asLong();
+			assertThat(id).isGreaterThan(previous);
+			previous = id;
+		}
+	}
+
+	@Test
+	void exportsGzipJsonArray() throws Exception {
+		HttpResponse<InputStream> response = get("/api/products/export?format=json", "gzip, deflate");
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		assertThat(response.headers().firstValue("Vary")).hasValueSatisfying(vary -> assertThat(vary).contains("Accept-Encoding"));
+		JsonNode products = objectMapper.readTree(new GZIPInputStream(response.body()));
+		assertThat(products.isArray()).isTrue();
+		assertThat(products).hasSize(PRODUCTS);
+		assertThat(products.get(0).get("imageUrl").asText()).startsWith("/api/products/");
+	}
+
+	@Test
+	void exportsDeflateWhenPreferred() throws Exception {
+		HttpResponse<InputStream> response = get("/api/products/export", "gzip;q=0.5, deflate");
+
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("deflate");
+		long lines = new BufferedReader(new InputStreamReader(new InflaterInputStream(response.body()), StandardCharsets.UTF_8)).lines().count();
+		assertThat(lines).isEqualTo(PRODUCTS);
+	}
+
+	@Test
+	void rejectsUnknownFormat() throws Exception {
+		assertThat(get("/api/products/export?format=xml", null).statusCode()).isEqualTo(400);
+	}
+
+	@Test
+	void compressesProductListings() throws Exception {
+		HttpResponse<InputStream> response = get("/api/products?size=100", "gzip");
+
+		assertThat(response.statusCode()).isEqualTo(200);
+		assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+		assertThat(objectMapper.readTree(new GZIPInputStream(response.body())).get("content")).hasSize(100);
+	}
+
+	@Test
+	void negotiatesContentCoding() {
+		assertThat(ContentCoding.negotiate(null)).isEqualTo(ContentCoding.IDENTITY);
+		assertThat(ContentCoding.negotiate("br")).isEqualTo(ContentCoding.IDENTITY);
+		assertThat(ContentCoding.negotiate("deflate, gzip")).isEqualTo(ContentCoding.GZIP);
+		assertThat(ContentCoding.negotiate("gzip;q=0, *")).isEqualTo(ContentCoding.DEFLATE);
+		assertThat(ContentCoding.negotiate("*;q=0")).isEqualTo(ContentCoding.IDENTITY);
+	}
+
+	private HttpResponse<InputStream> get(String path, String acceptEncoding) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+		if (acceptEncoding != null) {
+			request.header("Accept-Encoding", acceptEncoding);
+		}
+		return client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * As imagens ficam em um diretório só deste teste, para que os arquivos gravados possam ser contados.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-image")
+@AutoConfigureMockMvc
+class ProductImageTests {
+
+	@TempDir
+	static Path storage;
+
+	@DynamicPropertySource
+	static void storage(DynamicPropertyRegistry registry) {
+		registry.add("app.images.storage-dir", storage::toString);
+	}
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void imageSupportsConditionalAndRangeRequests() throws Exception {
+		byte[] image = {10, 20, 30, 40};
+		long id = create("Cadeira", image);
+		String etag = "\"" + sha256(image) + "\"";
+
+		mockMvc.perform(get("/api/products/{id}/image", id))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+				.andExpect(content().bytes(image));
+		mockMvc.perform(get("/api/products/{id}/image", id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().bytes(new byte[0]));
+		mockMvc.perform(get("/api/products/{id}/image", id).header(HttpHeaders.RANGE, "bytes=0-1"))
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-1/4"))
+				.andExpect(content().bytes(new byte[]{10, 20}));
+	}
+
+	@Test
+	void identicalUploadsShareOneFile() throws Exception {
+		byte[] image = {50, 60, 70};
+		long first = create("Mesa", image);
+		long second = create("Mesa de centro", image);
+
+		assertThat(stored(sha256(image))).isEqualTo(1);
+
+		// O arquivo continua em uso pelo segundo produto
+		mockMvc.perform(delete("/api/products/{id}", first)).andExpect(status().isNoContent());
+		mockMvc.perform(get("/api/products/{id}/image", second))
+				.andExpect(status().isOk())
+				.andExpect(content().bytes(image));
+		assertThat(stored(sha256(image))).isEqualTo(1);
+	}
+
+	@Test
+	void imageOfRolledBackProductIsRemoved() throws Exception {
+		// Uma restrição criada só neste banco faz o INSERT falhar depois que a imagem já foi gravada
+		jdbcTemplate.execute("alter table product add constraint product_name_not_veneno check (name <> 'Veneno')");
+		byte[] image = {80, 90, 100};
+
+		mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", image))
+						.param("name", "Veneno")
+						.param("price", "10")
+						.param("description", "Recusado pelo banco"))
+				.andExpect(status().isBadRequest());
+
+		assertThat(stored(sha256(image))).isZero();
+	}
+
+	private long create(String name, byte[] image) throws Exception {
+		String body = mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", image))
+						.param("name", name)
+						.param("price", "10")
+						.param("description", "Descrição"))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body).get("id").asLong();
+	}
+
+	private static long stored(String hash) throws IOException {
+		try (Stream<Path> files = Files.walk(storage)) {
+			return files.filter(file -> file.getFileName().toString().equals(hash)).count();
+		}
+	}
+
+	private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+	}
+}
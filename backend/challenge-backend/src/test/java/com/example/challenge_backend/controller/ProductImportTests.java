@@ -0,0 +1,108 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Importação em lote com blocos de dois produtos e imagens de até 1KB.
+ * Uma restrição criada só neste banco recusa o nome "Veneno", o que faz o bloco em que ele está falhar no banco
+ * depois de passar pela validação, como aconteceria com uma violação de restrição em produção.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:product-import",
+		"app.import.batch-size=2",
+		"app.images.max-size=1KB"
+})
+@AutoConfigureMockMvc
+class ProductImportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void validRowsAreImportedAndInvalidRowsAreReportedByLine() throws Exception {
+		jdbcTemplate.execute("alter table product add constraint product_name_not_veneno check (name <> 'Veneno')");
+
+		String ndjson = String.join("\n",
+				"{\"name\":\"Cadeira\",\"price\":10,\"description\":\"Cadeira de madeira\",\"image\":\"a.png\"}",
+				"",
+				"{\"name\":",
+				"{\"name\":\"Mesa\",\"price\":20,\"description\":\"Mesa de madeira\",\"image\":\"a.png\"}",
+				"{\"name\":\"Veneno\",\"price\":30,\"description\":\"Recusado pelo banco\",\"image\":\"b.png\"}",
+				"{\"name\":\"Banco\",\"price\":-1,\"description\":\"Preço negativo\",\"image\":\"a.png\"}",
+				"{\"name\":\"Estante\",\"price\":40,\"description\":\"Imagem ausente\",\"image\":\"c.png\"}",
+				"{\"name\":\"Armário\",\"price\":50,\"description\":\"Imagem grande\",\"image\":\"big.png\"}",
+				"{\"name\":\"Sofá\",\"price\":60,\"description\":\"Sofá de couro\",\"image\":\"b.png\"}");
+		byte[] images = zip("a.png", new byte[]{1, 2, 3}, "b.png", new byte[]{4, 5, 6}, "big.png", new byte[2048]);
+
+		String body = mockMvc.perform(multipart("/api/products/bulk")
+						.file(new MockMultipartFile("file", "products.ndjson", "application/x-ndjson", ndjson.getBytes(StandardCharsets.UTF_8)))
+						.file(new MockMultipartFile("images", "images.zip", "application/zip", images)))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		JsonNode result = objectMapper.readTree(body);
+
+		assertThat(result.get("rows").asLong()).isEqualTo(8);
+		assertThat(result.get("imported").asLong()).isEqualTo(3);
+		assertThat(result.get("failed").asLong()).isEqualTo(5);
+		List<String> errors = new ArrayList<>();
+		result.get("errors").forEach(error -> errors.add(error.get("row").asLong() + " " + error.get("message").asText()));
+		// A linha 5 só é recusada quando o seu bloco falha e as linhas são regravadas uma a uma, depois da linha 9
+		assertThat(errors).hasSize(5);
+		assertThat(errors.get(0)).startsWith("3 Invalid JSON");
+		assertThat(errors.get(1)).startsWith("6 price:");
+		assertThat(errors.get(2)).isEqualTo("7 image: not found in images archive: c.png");
+		assertThat(errors.get(3)).startsWith("8 image: Image exceeds the maximum size");
+		assertThat(errors.get(4)).startsWith("5 Failed to save product");
+
+		assertThat(jdbcTemplate.queryForList("select name from product order by name", String.class))
+				.containsExactly("Cadeira", "Mesa", "Sofá");
+		assertThat(jdbcTemplate.queryForObject("select count(distinct image_hash) from product", Long.class)).isEqualTo(2);
+
+		JsonNode page = objectMapper.readTree(mockMvc.perform(get("/api/products").param("sort", "name"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+		assertThat(page.get("totalElements").asLong()).isEqualTo(3);
+		// A imagem b.png era também a da linha recusada, mas continua em uso pelo Sofá e não pode ter sido removida
+		mockMvc.perform(get("/api/products/{id}/image", page.get("content").get(2).get("id").asLong()))
+				.andExpect(status().isOk());
+	}
+
+	private static byte[] zip(Object... entries) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out)) {
+			for (int i = 0; i < entries.length; i += 2) {
+				zip.putNextEntry(new ZipEntry((String) entries[i]));
+				zip.write((byte[]) entries[i + 1]);
+				zip.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,64 @@
+package com.example.challenge_backend.controller;
+
+import com.example.challenge_backend.exception.ResourceNotFoundException;
+import com.example.challenge_backend.metrics.QueryBudgetFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sondagens de IDs inexistentes: a primeira consulta o banco, as seguintes são respondidas pelo cache negativo até a próxima criação.
+ */
+@SpringBootTest(properties = {
+		"app.query-budget.header=true",
+		"spring.datasource.url=jdbc:h2:mem:product-not-found"
+})
+@AutoConfigureMockMvc
+class ProductNotFoundTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void repeatedProbesOfMissingIdSkipTheDatabaseUntilProductIsCreated() throws Exception {
+		mockMvc.perform(get("/api/products/1"))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.message").value("Product not found for this id: 1"))
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=1; rows=0; lobBytes=0"));
+		mockMvc.perform(get("/api/products/1"))
+				.andExpect(status().isNotFound())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=0; rows=0; lobBytes=0"));
+		mockMvc.perform(get("/api/products/1/image"))
+				.andExpect(status().isNotFound())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=0; rows=0; lobBytes=0"));
+		mockMvc.perform(delete("/api/products/1"))
+				.andExpect(status().isNotFound())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=0; rows=0; lobBytes=0"));
+
+		mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1}))
+						.param("name", "Cadeira")
+						.param("price", "10")
+						.param("description", "Cadeira de madeira"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.id").value(1));
+
+		mockMvc.perform(get("/api/products/1")).andExpect(status().isOk());
+	}
+
+	@Test
+	void notFoundExceptionCarriesNoStackTrace() {
+		assertEquals(0, ResourceNotFoundException.product(1L).getStackTrace().length);
+	}
+}
@@ -0,0 +1,132 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-patch")
+@AutoConfigureMockMvc
+class ProductPatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private long id;
+
+	private String etag;
+
+	@BeforeEach
+	void createProduct() throws Exception {
+		MvcResult result = mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1, 2, 3}))
+						.param("name", "Cadeira")
+						.param("price", "10")
+						.param("description", "Cadeira de madeira"))
+				.andExpect(status().isCreated())
+				.andReturn();
+		JsonNode product = objectMapper.readTree(result.getResponse().getContentAsString());
+		id = product.get("id").asLong();
+		etag = "\"" + id + "-" + product.get("version").asLong() + "\"";
+	}
+
+	@Test
+	void patchChangesOnlyTheGivenFieldsAndReturnsTheNewEtag() throws Exception {
+		String newEtag = mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag)
+						.content("{\"price\": 25.5}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.product.price").value(25.5))
+				.andExpect(jsonPath("$.product.name").value("Cadeira"))
+				.andExpect(jsonPath("$.product.description").value("Cadeira de madeira"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertThat(newEtag).isNotEqualTo(etag);
+		mockMvc.perform(get("/api/products/{id}", id))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, newEtag))
+				.andExpect(jsonPath("$.price").value(25.5));
+	}
+
+	@Test
+	void patchWithStaleEtagIsRejected() throws Exception {
+		mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag)
+						.content("{\"name\": \"Mesa\"}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag)
+						.content("{\"price\": 30}"))
+				.andExpect(status().isPreconditionFailed());
+		mockMvc.perform(get("/api/products/{id}", id))
+				.andExpect(jsonPath("$.name").value("Mesa"))
+				.andExpect(jsonPath("$.price").value(10));
+	}
+
+	@Test
+	void patchWithoutIfMatchIsRejected() throws Exception {
+		mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"price\": 30}"))
+				.andExpect(status().isPreconditionRequired());
+	}
+
+	@Test
+	void patchValidatesTheResultingProduct() throws Exception {
+		mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag)
+						.content("{\"name\": \" \", \"price\": -1}"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void patchWithoutChangesKeepsTheVersion() throws Exception {
+		mockMvc.perform(patch("/api/products/{id}", id)
+						.contentType(MediaType.APPLICATION_JSON)
+						.header(HttpHeaders.IF_MATCH, etag)
+						.content("{\"name\": \"Cadeira\", \"price\": 10.00}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+	}
+
+	@Test
+	void multipartPatchKeepsTheImageWhenNoneIsSent() throws Exception {
+		String imageUrl = objectMapper.readTree(mockMvc.perform(get("/api/products/{id}", id))
+				.andReturn().getResponse().getContentAsString()).get("imageUrl").asText();
+
+		mockMvc.perform(multipart("/api/products/{id}", id)
+						.param("description", "Cadeira de carvalho")
+						.header(HttpHeaders.IF_MATCH, etag)
+						.with(request -> {
+							request.setMethod("PATCH");
+							return request;
+						}))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.product.description").value("Cadeira de carvalho"))
+				.andExpect(jsonPath("$.product.imageUrl").value(imageUrl));
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-query")
+@AutoConfigureMockMvc
+class ProductQueryTests {
+
+	private static boolean created;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeAll
+	static void reset() {
+		created = false;
+	}
+
+	private void createCatalog() throws Exception {
+		if (created) {
+			return;
+		}
+		String[][] products = {
+				{"Cadeira azul", "10"}, {"Cadeira verde", "30"}, {"Cadeira_1", "50"}, {"Cadeirante", "70"},
+				{"Mesa", "20"}, {"Mesa redonda", "40"}, {"cadeira baixa", "15"}
+		};
+		for (String[] product : products) {
+			mockMvc.perform(multipart("/api/products")
+							.file(new MockMultipartFile("image", "image.png", "image/png", product[0].getBytes()))
+							.param("name", product[0])
+							.param("price", product[1])
+							.param("description", "Descrição"))
+					.andExpect(status().isCreated());
+		}
+		created = true;
+	}
+
+	@Test
+	void namePrefixAndPriceRangeAreAppliedTogether() throws Exception {
+		createCatalog();
+
+		assertThat(names(get("/api/products/query").param("name", "Cadeira").param("maxPrice", "50")))
+				.containsExactly("Cadeira azul", "Cadeira verde", "Cadeira_1");
+		assertThat(names(get("/api/products/query").param("minPrice", "20").param("maxPrice", "40")))
+				.containsExactly("Mesa", "Cadeira verde", "Mesa redonda");
+		assertThat(names(get("/api/products/query").param("name", "Cadeira_")))
+				.containsExactly("Cadeira_1");
+	}
+
+	@Test
+	void cursorWalksTheWholeFilteredRange() throws Exception {
+		createCatalog();
+
+		List<String> names = new ArrayList<>();
+		String after = "";
+		do {
+			JsonNode slice = query(get("/api/products/query").param("name", "Cadeira").param("size", "2").param("after", after));
+			slice.get("content").forEach(product -> names.add(product.get("name").asText()));
+			after = slice.get("next").isNull() ? null : slice.get("next").asText();
+		} while (after != null);
+
+		assertThat(names).containsExactly("Cadeira azul", "Cadeira verde", "Cadeira_1", "Cadeirante");
+	}
+
+	@Test
+	void combinationsWithoutAnIndexAreRejected() throws Exception {
+		mockMvc.perform(get("/api/products/query").param("name", "Cadeira").param("sort", "price"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products/query").param("minPrice", "10").param("sort", "id"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products/query").param("minPrice", "50").param("maxPrice", "10"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products/query").param("name", "Cadeira").param("minPrice", "10").param("sort", "price"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void pagesAcceptOnlyTheWhitelistedSortOrders() throws Exception {
+		createCatalog();
+
+		mockMvc.perform(get("/api/products").param("sort", "description")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products").param("sort", "imageHash")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products").param("sort", "price,sideways")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products").param("page", "-1")).andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products").param("size", "0")).andExpect(status().isBadRequest());
+		// 21474837 * 100 passa de Integer.MAX_VALUE; com o OFFSET truncado, a resposta seria outra página
+		mockMvc.perform(get("/api/products").param("page", "21474837").param("size", "100")).andExpect(status().isBadRequest());
+		query(get("/api/products").param("page", "21474836").param("size", "100"));
+
+		List<String> prices = new ArrayList<>();
+		query(get("/api/products").param("sort", "price,DESC").param("size", "3"))
+				.get("content").forEach(product -> prices.add(product.get("price").asText()));
+		assertThat(prices).containsExactly("70.0", "50.0", "40.0");
+	}
+
+	private List<String> names(MockHttpServletRequestBuilder request) throws Exception {
+		List<String> names = new ArrayList<>();
+		query(request).get("content").forEach(product -> names.add(product.get("name").asText()));
+		return names;
+	}
+
+	private JsonNode query(MockHttpServletRequestBuilder request) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+	}
+}
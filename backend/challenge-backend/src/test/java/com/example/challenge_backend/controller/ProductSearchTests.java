@@ -0,0 +1,44 @@
+package com.example.challenge_backend.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-search")
+@AutoConfigureMockMvc
+class ProductSearchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void pageFarPastTheEndIsEmptyInsteadOfFailing() throws Exception {
+		mockMvc.perform(multipart("/api/products")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1}))
+						.param("name", "Abajur")
+						.param("price", "10")
+						.param("description", "Abajur de chão"))
+				.andExpect(status().isCreated());
+
+		mockMvc.perform(get("/api/products/search").param("query", "a").param("page", "21474837").param("size", "100"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content").isEmpty())
+				.andExpect(jsonPath("$.totalElements").value(1));
+	}
+
+	@Test
+	void negativePageAndNonPositiveSizeAreRejected() throws Exception {
+		mockMvc.perform(get("/api/products/search").param("query", "a").param("page", "-1"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/products/search").param("query", "a").param("size", "0"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.challenge_backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Paginação por cursor em um catálogo com nomes e preços repetidos: os empates são desfeitos pelo id,
+ * e o cursor tem de continuar exatamente depois do último item, mesmo quando a fatia termina no meio de um grupo de empates.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-slice")
+@AutoConfigureMockMvc
+class ProductSliceTests {
+
+	private static final List<Created> catalog = new ArrayList<>();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void createCatalog() throws Exception {
+		if (!catalog.isEmpty()) {
+			return;
+		}
+		String[][] products = {
+				{"Mesa", "20"}, {"Cadeira", "10"}, {"Mesa", "10"}, {"Banco", "20"}, {"Cadeira", "10"},
+				{"Mesa", "20"}, {"Banco", "10"}, {"Cadeira", "30"}, {"Mesa", "10"}
+		};
+		for (String[] product : products) {
+			String body = mockMvc.perform(multipart("/api/products")
+							.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{1}))
+							.param("name", product[0])
+							.param("price", product[1])
+							.param("description", "Descrição"))
+					.andExpect(status().isCreated())
+					.andReturn().getResponse().getContentAsString();
+			catalog.add(new Created(objectMapper.readTree(body).get("id").asLong(), product[0], new BigDecimal(product[1])));
+		}
+	}
+
+	@Test
+	void walkingAllSlicesVisitsEveryProductOnceInOrder() throws Exception {
+		for (int size = 1; size <= 4; size++) {
+			assertThat(walk("name", size)).containsExactlyElementsOf(expected(Comparator.comparing(Created::name)));
+			assertThat(walk("price", size)).containsExactlyElementsOf(expected(Comparator.comparing(Created::price)));
+			assertThat(walk("id", size)).containsExactlyElementsOf(expected(Comparator.comparing(Created::id)));
+		}
+	}
+
+	@Test
+	void tamperedOrMalformedCursorsAreRejected() throws Exception {
+		JsonNode first = slice("price", 2, "");
+		String cursor = first.get("next").asText();
+		String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+		rejected("price", "not base64!");
+		rejected("price", encode("garbage"));
+		rejected("price", encode(raw.replaceFirst("^v1", "v0")));
+		rejected("price", encode(raw.substring(0, raw.lastIndexOf(':')) + ":abc"));
+		rejected("price", encode("v1:price:abc:10.00"));
+		rejected("price", encode(raw.substring(0, raw.lastIndexOf(':'))));
+	}
+
+	@Test
+	void cursorIsRejectedWithAnotherSort() throws Exception {
+		String cursor = slice("price", 2, "").get("next").asText();
+
+		rejected("name", cursor);
+		rejected("id", cursor);
+		assertThat(slice("price", 2, cursor).get("content")).hasSize(2);
+	}
+
+	private List<Long> walk(String sort, int size) throws Exception {
+		List<Long> ids = new ArrayList<>();
+		String after = "";
+		do {
+			JsonNode slice = slice(sort, size, after);
+			slice.get("content").forEach(product -> ids.add(product.get("id").asLong()));
+			after = slice.get("next").isNull() ? null : slice.get("next").asText();
+		} while (after != null);
+		return ids;
+	}
+
+	private List<Long> expected(Comparator<Created> order) {
+		return catalog.stream().sorted(order.thenComparing(Created::id)).map(Created::id).toList();
+	}
+
+	private JsonNode slice(String sort, int size, String after) throws Exception {
+		return objectMapper.readTree(mockMvc.perform(get("/api/products")
+						.param("sort", sort)
+						.param("size", String.valueOf(size))
+						.param("after", after))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString());
+	}
+
+	private void rejected(String sort, String after) throws Exception {
+		mockMvc.perform(get("/api/products").param("sort", sort).param("after", after))
+				.andExpect(status().isBadRequest());
+	}
+
+	private static String encode(String raw) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private record Created(long id, String name, BigDecimal price) {
+	}
+}
@@ -0,0 +1,36 @@
+package com.example.challenge_backend.exception;
+
+import com.example.challenge_backend.dto.error.ErrorDetails;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GlobalExceptionHandlerTests {
+
+	private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+	private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/products/export"));
+
+	@Test
+	void clientDisconnectsWriteNothing() {
+		assertNull(handler.handleIOException(new AsyncRequestNotUsableException("Response not usable after response errors."), request));
+		assertNull(handler.handleIOException(new IOException("Broken pipe"), request));
+		assertNull(handler.handleIOException(new IOException("Connection reset by peer"), request));
+	}
+
+	@Test
+	void otherIoFailuresAreServerErrors() {
+		ResponseEntity<?> response = handler.handleIOException(new IOException("No space left on device"), request);
+
+		assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+		assertEquals("No space left on device", ((ErrorDetails) response.getBody()).message());
+	}
+}
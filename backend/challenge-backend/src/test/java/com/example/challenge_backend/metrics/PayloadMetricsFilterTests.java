@@ -0,0 +1,76 @@
+package com.example.challenge_backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PayloadMetricsFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final PayloadMetricsFilter filter = new PayloadMetricsFilter(meterRegistry);
+
+	@Test
+	void responseBytesAreRecordedPerMethodUriAndStatus() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			filter.doFilter(request("/api/products/{id}"), new MockHttpServletResponse(), (req, res) -> res.getOutputStream().write(new byte[10]));
+		}
+
+		DistributionSummary summary = responseBytes("/api/products/{id}");
+		assertEquals(2, summary.count());
+		assertEquals(20, summary.totalAmount());
+	}
+
+	/**
+	 * O feed de alterações sai do filtro antes de escrever qualquer evento; o que conta é o que foi escrito até o fim da conexão.
+	 */
+	@Test
+	void asyncResponseIsRecordedWhenItCompletes() throws Exception {
+		MockHttpServletRequest request = request("/api/products/changes");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ResponseHolder holder = new ResponseHolder();
+
+		filter.doFilter(request, response, (req, res) -> {
+			req.startAsync(req, res);
+			holder.response = res;
+		});
+		assertNull(meterRegistry.find(PayloadMetricsFilter.RESPONSE_BYTES).summary());
+
+		holder.write(100);
+		holder.write(50);
+		request.getAsyncContext().complete();
+
+		DistributionSummary summary = responseBytes("/api/products/changes");
+		assertEquals(1, summary.count());
+		assertEquals(150, summary.totalAmount());
+	}
+
+	private DistributionSummary responseBytes(String uri) {
+		return meterRegistry.get(PayloadMetricsFilter.RESPONSE_BYTES).tag("uri", uri).tag("status", "200").summary();
+	}
+
+	private static MockHttpServletRequest request(String pattern) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+		return request;
+	}
+
+	private static final class ResponseHolder {
+
+		private ServletResponse response;
+
+		private void write(int bytes) throws IOException {
+			response.getOutputStream().write(new byte[bytes]);
+		}
+	}
+}
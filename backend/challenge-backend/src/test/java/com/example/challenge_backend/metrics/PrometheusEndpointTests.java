@@ -0,0 +1,72 @@
+package com.example.challenge_backend.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercita as operações de produto por HTTP e confere que as métricas aparecem no endpoint /actuator/prometheus.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.datasource.url=jdbc:h2:mem:metrics")
+@AutoConfigureObservability
+class PrometheusEndpointTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void productOperationsArePublishedInPrometheusFormat() {
+		// O tamanho da requisição vem do Content-Length, que só é enviado quando o corpo é montado antes do envio
+		RestTemplate client = restTemplate.getRestTemplate();
+		client.setRequestFactory(new BufferingClientHttpRequestFactory(client.getRequestFactory()));
+
+		MultiValueMap<String, Object> form = new LinkedMultiValueMap<>();
+		form.add("name", "Cadeira");
+		form.add("price", "10");
+		form.add("description", "Cadeira de madeira");
+		HttpHeaders imageHeaders = new HttpHeaders();
+		imageHeaders.setContentType(MediaType.IMAGE_PNG);
+		form.add("image", new HttpEntity<>(new ByteArrayResource(new byte[]{1, 2, 3, 4}) {
+			@Override
+			public String getFilename() {
+				return "image.png";
+			}
+		}, imageHeaders));
+		assertEquals(HttpStatus.CREATED, restTemplate.postForEntity("/api/products", form, String.class).getStatusCode());
+		assertEquals(HttpStatus.OK, restTemplate.getForEntity("/api/products", String.class).getStatusCode());
+		assertEquals(HttpStatus.OK, restTemplate.getForEntity("/api/products/search?query=cadeira", String.class).getStatusCode());
+
+		ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+		assertEquals(HttpStatus.OK, scrape.getStatusCode());
+		String metrics = scrape.getBody();
+		assertContains(metrics, "product_service_seconds_bucket{exception=\"none\",operation=\"create\"");
+		assertContains(metrics, "product_service_seconds_count{exception=\"none\",operation=\"findAll\"}");
+		assertContains(metrics, "http_server_request_bytes_count{method=\"POST\",status=\"201\",uri=\"/api/products\"}");
+		assertContains(metrics, "http_server_response_bytes_count{method=\"GET\",status=\"200\",uri=\"/api/products/search\"}");
+		assertContains(metrics, "http_server_requests_seconds_bucket");
+		assertContains(metrics, "product_image_bytes_count");
+		assertContains(metrics, "hibernate_query_executions_total");
+		assertContains(metrics, "hikaricp_connections_active");
+		assertContains(metrics, "cache_gets_total{cache=\"productPages\"");
+	}
+
+	private static void assertContains(String metrics, String expected) {
+		assertTrue(metrics.contains(expected), () -> "missing metric: " + expected);
+	}
+}
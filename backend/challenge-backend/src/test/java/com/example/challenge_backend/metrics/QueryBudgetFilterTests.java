@@ -0,0 +1,79 @@
+package com.example.challenge_backend.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryBudgetFilterTests {
+
+	private static final QueryBudgetProperties.Budget ONE_STATEMENT = new QueryBudgetProperties.Budget(1L, 10L, 0L);
+
+	@Test
+	void requestWithinBudgetReportsCountsInHeader() {
+		QueryBudgetFilter filter = filter(QueryBudgetProperties.Mode.FAIL);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertDoesNotThrow(() -> filter.doFilter(request(), response, (req, res) -> {
+			QueryStats.current().statement();
+			QueryStats.current().row();
+			res.getOutputStream().write(1);
+		}));
+
+		assertEquals("statements=1; rows=1; lobBytes=0", response.getHeader(QueryBudgetFilter.HEADER));
+	}
+
+	@Test
+	void requestOverBudgetFailsInFailMode() {
+		QueryBudgetFilter filter = filter(QueryBudgetProperties.Mode.FAIL);
+
+		assertThrows(QueryBudgetExceededException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+			QueryStats.current().statement();
+			QueryStats.current().statement();
+		}));
+	}
+
+	@Test
+	void requestOverBudgetFailsInFailModeEvenAfterResponseWasCommitted() {
+		QueryBudgetFilter filter = filter(QueryBudgetProperties.Mode.FAIL);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertThrows(QueryBudgetExceededException.class, () -> filter.doFilter(request(), response, (req, res) -> {
+			QueryStats.current().statement();
+			QueryStats.current().statement();
+			res.getOutputStream().write(1);
+			res.flushBuffer();
+		}));
+		assertTrue(response.isCommitted());
+		assertEquals("statements=2; rows=0; lobBytes=0", response.getHeader(QueryBudgetFilter.HEADER));
+	}
+
+	@Test
+	void requestOverBudgetOnlyWarnsInWarnMode() {
+		QueryBudgetFilter filter = filter(QueryBudgetProperties.Mode.WARN);
+
+		assertDoesNotThrow(() -> filter.doFilter(request(), new MockHttpServletResponse(), (req, res) -> {
+			QueryStats.current().lobBytes(1024);
+		}));
+	}
+
+	private static QueryBudgetFilter filter(QueryBudgetProperties.Mode mode) {
+		QueryBudgetProperties properties = new QueryBudgetProperties(mode, true, null,
+				Map.of("/api/products/{id}", Map.of("get", ONE_STATEMENT)));
+		return new QueryBudgetFilter(properties, new SimpleMeterRegistry());
+	}
+
+	private static MockHttpServletRequest request() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/{id}");
+		return request;
+	}
+}
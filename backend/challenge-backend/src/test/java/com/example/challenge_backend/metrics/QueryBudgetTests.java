@@ -0,0 +1,92 @@
+package com.example.challenge_backend.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Percorre todos os endpoints de produto com o orçamento de consultas em modo fail:
+ * se alguma mudança fizer um endpoint executar mais comandos ou ler mais linhas do que o configurado, o teste falha.
+ */
+@SpringBootTest(properties = {
+		"app.query-budget.mode=fail",
+		"app.query-budget.header=true",
+		"spring.datasource.url=jdbc:h2:mem:query-budget"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void productEndpointsStayWithinTheirQueryBudgets() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			mockMvc.perform(multipart("/api/products")
+							.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{(byte) i}))
+							.param("name", "Cadeira " + i)
+							.param("price", "10")
+							.param("description", "Cadeira de madeira"))
+					.andExpect(status().isCreated());
+		}
+
+		mockMvc.perform(get("/api/products/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=1; rows=1; lobBytes=0"));
+		mockMvc.perform(get("/api/products/1/image")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/products")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/products").param("after", "")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/products/search").param("query", "cadeira")).andExpect(status().isOk());
+		mockMvc.perform(get("/api/products/query").param("name", "Cadeira").param("maxPrice", "10"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=1; rows=3; lobBytes=0"));
+		mockMvc.perform(get("/api/products/export")).andExpect(status().isOk());
+		mockMvc.perform(multipart("/api/products/1")
+						.file(new MockMultipartFile("image", "image.png", "image/png", new byte[]{9}))
+						.param("name", "Mesa")
+						.param("price", "11")
+						.param("description", "Mesa de madeira")
+						.with(request -> {
+							request.setMethod("PUT");
+							return request;
+						}))
+				.andExpect(status().isOk());
+		mockMvc.perform(patch("/api/products/3")
+						.contentType(MediaType.APPLICATION_JSON)
+						.header("If-Match", "\"3-0\"")
+						.content("{\"price\": 12}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=2; rows=1; lobBytes=0"));
+		mockMvc.perform(post("/api/products/batch-get")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\": [3, 1, 99]}"))
+				.andExpect(status().isOk())
+				// 3 e 1 já estão no cache, gravados pela alteração de cada um; só o 99 é procurado no banco
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=1; rows=0; lobBytes=0"));
+		mockMvc.perform(post("/api/products/batch-price")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"prices\": [{\"id\": 1, \"price\": 20}, {\"id\": 3, \"price\": 30}]}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=2; rows=2; lobBytes=0"));
+		mockMvc.perform(delete("/api/products/2"))
+				.andExpect(status().isNoContent())
+				.andExpect(header().exists(QueryBudgetFilter.HEADER));
+		mockMvc.perform(post("/api/products/batch-delete")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"ids\": [1, 3, 99]}"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(QueryBudgetFilter.HEADER, "statements=3; rows=2; lobBytes=0"));
+	}
+}
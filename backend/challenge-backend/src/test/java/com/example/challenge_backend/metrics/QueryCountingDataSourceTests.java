@@ -0,0 +1,63 @@
+package com.example.challenge_backend.metrics;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCountingDataSourceTests {
+
+	private QueryCountingDataSource dataSource;
+
+	private Connection keepAlive;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		JdbcDataSource h2 = new JdbcDataSource();
+		h2.setURL("jdbc:h2:mem:query-counting");
+		keepAlive = h2.getConnection();
+		try (Statement statement = keepAlive.createStatement()) {
+			statement.execute("create table document (id int primary key, content blob, text clob)");
+		}
+		try (PreparedStatement insert = keepAlive.prepareStatement("insert into document values (1, ?, ?)")) {
+			insert.setBytes(1, new byte[3000]);
+			insert.setString(2, "x".repeat(2000));
+			insert.executeUpdate();
+		}
+		dataSource = new QueryCountingDataSource(h2);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		QueryStats.stop();
+		keepAlive.close();
+	}
+
+	@Test
+	void lobsReadAsStreamsCountWhatWasRead() throws Exception {
+		QueryStats stats = QueryStats.start();
+		try (Connection connection = dataSource.getConnection();
+			 Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery("select content, text from document")) {
+			assertTrue(resultSet.next());
+			try (InputStream content = resultSet.getBinaryStream(1)) {
+				assertEquals(3000, content.readAllBytes().length);
+			}
+			try (Reader text = resultSet.getCharacterStream(2)) {
+				assertEquals(1000, text.read(new char[1000]));
+			}
+		}
+
+		assertEquals("statements=1; rows=1; lobBytes=4000", stats.toString());
+	}
+}
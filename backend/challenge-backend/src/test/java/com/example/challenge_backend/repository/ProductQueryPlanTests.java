@@ -0,0 +1,141 @@
+package com.example.challenge_backend.repository;
+
+import com.example.challenge_backend.dto.product.ProductFilter;
+import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.service.ProductService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confere, pelo EXPLAIN do H2, que as consultas ordenadas da listagem percorrem os índices criados pelas migrações
+ * em vez de ordenar a tabela inteira. As consultas verificadas são as que o Hibernate de fato gera, capturadas por um StatementInspector.
+ * Roda no perfil persistent, com o banco em arquivo em um diretório temporário.
+ */
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.example.challenge_backend.repository.ProductQueryPlanTests$CapturingInspector",
+		"app.warmup.iterations=0",
+		"spring.datasource.password=plan-tests"
+})
+@ActiveProfiles("persistent")
+class ProductQueryPlanTests {
+
+	@TempDir
+	static Path dataDir;
+
+	@DynamicPropertySource
+	static void dataDir(DynamicPropertyRegistry registry) {
+		registry.add("app.data-dir", dataDir::toString);
+	}
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void createCatalog() {
+		if (productRepository.count() == 0) {
+			productRepository.saveAll(IntStream.range(0, 1000)
+					.mapToObj(i -> new Product(null, "Produto " + (i * 7919 % 1000), BigDecimal.valueOf(i % 100), "Descrição",
+							"a".repeat(64), 1L, "image/png", null))
+					.toList());
+		}
+		CapturingInspector.statements.clear();
+	}
+
+	@Test
+	void pageSortedByNameUsesTheNameIndex() {
+		productService.findAll(0, 10, "name");
+
+		assertThat(explain(sortedSelect(), 10)).contains("IDX_PRODUCT_NAME_ID").contains("index sorted");
+	}
+
+	@Test
+	void pageSortedByPriceUsesThePriceIndex() {
+		productService.findAll(0, 10, "price");
+
+		assertThat(explain(sortedSelect(), 10)).contains("IDX_PRODUCT_PRICE_ID").contains("index sorted");
+	}
+
+	@Test
+	void descendingPagesUseTheDescendingIndexes() {
+		productService.findAll(0, 10, "name,desc");
+		assertThat(explain(sortedSelect(), 10)).contains("IDX_PRODUCT_NAME_ID_DESC").contains("index sorted");
+
+		CapturingInspector.statements.clear();
+		productService.findAll(0, 10, "price,desc");
+		assertThat(explain(sortedSelect(), 10)).contains("IDX_PRODUCT_PRICE_ID_DESC").contains("index sorted");
+
+		CapturingInspector.statements.clear();
+		productService.findAll(0, 10, "id,desc");
+		assertThat(explain(sortedSelect(), 10)).contains("IDX_PRODUCT_ID_DESC").contains("index sorted");
+	}
+
+	@Test
+	void cursorSliceContinuesFromTheIndex() {
+		String after = productService.findSlice(null, 10, "name").next();
+		CapturingInspector.statements.clear();
+		productService.findSlice(after, 10, "name");
+
+		assertThat(explain(sortedSelect(), "Produto 5", "Produto 5", 0L, 11)).contains("IDX_PRODUCT_NAME_ID").contains("index sorted");
+	}
+
+	@Test
+	void namePrefixQueryScansOnlyThePrefixRangeOfTheNameIndex() {
+		productService.query(new ProductFilter("Produto 12", null, BigDecimal.TEN), null, null, 10);
+
+		assertThat(explain(sortedSelect(), "Produto 12", "Produto 13", "Produto 12%", BigDecimal.TEN, 11))
+				.contains("IDX_PRODUCT_NAME_ID: NAME >= ?1").contains("NAME < ?2").contains("index sorted");
+	}
+
+	@Test
+	void priceRangeQueryScansOnlyThePriceRangeOfThePriceIndex() {
+		productService.query(new ProductFilter(null, BigDecimal.ONE, BigDecimal.valueOf(2)), null, null, 10);
+
+		assertThat(explain(sortedSelect(), BigDecimal.ONE, BigDecimal.valueOf(2), 11))
+				.contains("IDX_PRODUCT_PRICE_ID: PRICE >= ?1").contains("PRICE <= ?2").contains("index sorted");
+	}
+
+	private String sortedSelect() {
+		return CapturingInspector.statements.stream()
+				.filter(sql -> sql.startsWith("select") && sql.contains("order by"))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private String explain(String sql, Object... parameters) {
+		return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters));
+	}
+
+	public static class CapturingInspector implements StatementInspector {
+
+		static final List<String> statements = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+}
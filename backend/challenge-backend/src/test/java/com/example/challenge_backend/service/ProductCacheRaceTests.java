@@ -0,0 +1,140 @@
+package com.example.challenge_backend.service;
+
+import com.example.challenge_backend.ProductFixtures;
+import com.example.challenge_backend.config.CacheConfig;
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uma leitura que lê o produto antes do commit de uma alteração e só grava no cache depois dele
+ * não pode deixar no cache a versão anterior, nem devolver ao cache um produto removido.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:product-cache-race")
+class ProductCacheRaceTests {
+
+	/**
+	 * Quando armada, a próxima leitura por findSummaryById avisa que já leu a linha e a segura até ser liberada.
+	 */
+	private static volatile CountDownLatch read;
+
+	private static volatile CountDownLatch release;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	/**
+	 * Uma thread só para a leitura lenta, que não depende de vaga no pool comum.
+	 */
+	private final ExecutorService reader = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	void cleanUp() {
+		if (release != null) {
+			release.countDown();
+		}
+		read = null;
+		release = null;
+		reader.shutdown();
+		productRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void slowReadFinishingAfterUpdateDoesNotCacheThePreviousVersion() throws Exception {
+		long id = productRepository.save(ProductFixtures.products(1).get(0)).getId();
+		CompletableFuture<Optional<ProductDTO>> slowRead = slowRead(id);
+
+		ProductDTO updated = productService.update(id, new ProductDTO(null, "Mesa", BigDecimal.valueOf(11), "Mesa de madeira", null, null), null)
+				.orElseThrow();
+		release.countDown();
+
+		assertThat(slowRead.get(10, TimeUnit.SECONDS)).get().extracting(ProductDTO::name).isEqualTo("Produto 0");
+		assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(id, ProductDTO.class)).isEqualTo(updated);
+		assertThat(productService.findById(id)).contains(updated);
+		assertThat(productService.findVersion(id)).contains(updated.version());
+	}
+
+	@Test
+	void slowReadFinishingAfterDeleteDoesNotCacheTheRemovedProduct() throws Exception {
+		long id = productRepository.save(ProductFixtures.products(1).get(0)).getId();
+		CompletableFuture<Optional<ProductDTO>> slowRead = slowRead(id);
+
+		assertThat(productService.delete(id)).isTrue();
+		release.countDown();
+
+		assertThat(slowRead.get(10, TimeUnit.SECONDS)).isPresent();
+		assertThat(cacheManager.getCache(CacheConfig.PRODUCTS).get(id)).isNull();
+		assertThat(productService.findById(id)).isEmpty();
+		assertThat(productService.findVersion(id)).isEmpty();
+	}
+
+	/**
+	 * Inicia em outra thread uma leitura do produto que lê a linha e espera a liberação antes de devolvê-la ao cache.
+	 */
+	private CompletableFuture<Optional<ProductDTO>> slowRead(long id) throws InterruptedException {
+		release = new CountDownLatch(1);
+		read = new CountDownLatch(1);
+		CompletableFuture<Optional<ProductDTO>> slowRead = CompletableFuture.supplyAsync(() -> productService.findById(id), reader);
+		assertThat(read.await(10, TimeUnit.SECONDS)).isTrue();
+		return slowRead;
+	}
+
+	@TestConfiguration
+	static class SlowReads {
+
+		/**
+		 * Envolve o repositório para segurar a leitura armada pelo teste depois que ela já leu a linha.
+		 */
+		@Bean
+		static BeanPostProcessor slowSummaryReads() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof ProductRepository repository)) {
+						return bean;
+					}
+					return Proxy.newProxyInstance(ProductRepository.class.getClassLoader(), new Class<?>[]{ProductRepository.class},
+							(proxy, method, args) -> {
+								Object result;
+								try {
+									result = method.invoke(repository, args);
+								} catch (InvocationTargetException e) {
+									throw e.getCause();
+								}
+								CountDownLatch armed = read;
+								if (method.getName().equals("findSummaryById") && armed != null && armed.getCount() > 0) {
+									armed.countDown();
+									release.await(10, TimeUnit.SECONDS);
+								}
+								return result;
+							});
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.challenge_backend.service;
+
+import com.example.challenge_backend.ProductFixtures;
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.repository.ProductOrder;
+import com.example.challenge_backend.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mede quantos bytes cada leitura de uma página da listagem aloca na thread que a executa,
+ * comparando a projeção ProductSummary usada por ProductService com o carregamento de entidades Product.
+ */
+@SpringBootTest
+class ProductReadPathAllocationTests {
+
+	private static final int PRODUCTS = 500;
+	private static final int WARMUP = 300;
+	private static final int ITERATIONS = 500;
+	private static final double MAX_ALLOCATION_RATIO = 0.75;
+
+	private static final Logger logger = LoggerFactory.getLogger(ProductReadPathAllocationTests.class);
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@BeforeEach
+	void seed() {
+		productRepository.saveAll(ProductFixtures.products(PRODUCTS));
+	}
+
+	@AfterEach
+	void cleanUp() {
+		productRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void listPageThroughProjectionAllocatesLessThanThroughEntities() {
+		// Consulta o repositório como ProductService.findAll, pois o serviço responderia a partir do cache de páginas
+		ProductOrder order = ProductOrder.from("name");
+		PageRequest pageable = PageRequest.of(0, 20, order.toSort());
+		long projection = bytesPerCall(() -> PageableExecutionUtils.getPage(
+						productRepository.findPage(order, (int) pageable.getOffset(), pageable.getPageSize()), pageable, productRepository::count)
+				.map(product -> new ProductDTO(product.id(), product.name(), product.price(), product.description(),
+						ProductService.imageUrl(product.id(), product.imageHash()), product.version())));
+		long entities = bytesPerCall(() -> productRepository.findAll(pageable)
+				.map(product -> new ProductDTO(product.getId(), product.getName(), product.getPrice(), product.getDescription(),
+						ProductService.imageUrl(product.getId(), product.getImageHash()), product.getVersion())));
+
+		logger.info("Allocation per list page (20 items): projection={} bytes, entities={} bytes", projection, entities);
+		// A projeção aloca perto da metade; a margem absorve a variação entre versões do JDK e do Hibernate
+		assertTrue(projection <= entities * MAX_ALLOCATION_RATIO,
+				"projection read path allocated " + projection + " bytes, more than " + MAX_ALLOCATION_RATIO + " of the "
+						+ entities + " bytes of the entity read path");
+	}
+
+	private static long bytesPerCall(Supplier<?> call) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		for (int i = 0; i < WARMUP; i++) {
+			call.get();
+		}
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			call.get();
+		}
+		return (threads.getCurrentThreadAllocatedBytes() - before) / ITERATIONS;
+	}
+}
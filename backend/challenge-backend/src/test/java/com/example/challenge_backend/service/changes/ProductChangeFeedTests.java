@@ -0,0 +1,207 @@
+package com.example.challenge_backend.service.changes;
+
+import com.example.challenge_backend.dto.product.ProductDTO;
+import com.example.challenge_backend.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lê o feed de alterações em um servidor real, como o EventSource do navegador: linha a linha, reconectando com Last-Event-ID.
+ * O buffer e a fila de cada cliente são pequenos para que seja fácil ficar para trás.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:product-changes",
+		"app.changes.buffer-size=4",
+		"app.changes.subscriber-queue-size=8",
+		"app.changes.heartbeat=0s"
+})
+@Timeout(30)
+class ProductChangeFeedTests {
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductChangeFeed productChangeFeed;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+
+	@Test
+	void newClientGetsReadyAndThenEachCommittedChange() throws Exception {
+		try (EventReader events = connect(null)) {
+			assertThat(events.next().name()).isEqualTo("ready");
+
+			ProductDTO created = productService.create(new ProductDTO(null, "Cadeira", BigDecimal.TEN, "Cadeira de madeira", null, null),
+					new MockMultipartFile("image", "image.png", "image/png", new byte[]{1, 2, 3}));
+			Event event = events.next();
+			assertThat(event.name()).isEqualTo("created");
+			JsonNode change = objectMapper.readTree(event.data());
+			assertThat(change.get("id").asLong()).isEqualTo(created.id());
+			assertThat(change.get("product").get("name").asText()).isEqualTo("Cadeira");
+			assertThat(change.get("product").get("imageUrl").asText()).isEqualTo(created.imageUrl());
+
+			productService.delete(created.id());
+			event = events.next();
+			assertThat(event.name()).isEqualTo("deleted");
+			assertThat(objectMapper.readTree(event.data()).get("product").isNull()).isTrue();
+		}
+	}
+
+	@Test
+	void reconnectingClientGetsOnlyTheChangesItMissed() throws Exception {
+		String lastEventId;
+		try (EventReader events = connect(null)) {
+			lastEventId = events.next().id();
+		}
+
+		productChangeFeed.publish(ProductChange.Type.UPDATED, 1L, product(1L, "Mesa"));
+		productChangeFeed.publish(ProductChange.Type.DELETED, 2L, null);
+
+		try (EventReader events = connect(lastEventId)) {
+			Event updated = events.next();
+			Event deleted = events.next();
+			assertThat(updated.name()).isEqualTo("updated");
+			assertThat(objectMapper.readTree(updated.data()).get("product").get("name").asText()).isEqualTo("Mesa");
+			assertThat(deleted.name()).isEqualTo("deleted");
+			assertThat(sequence(updated.id())).isEqualTo(sequence(lastEventId) + 1);
+			assertThat(sequence(deleted.id())).isEqualTo(sequence(lastEventId) + 2);
+		}
+	}
+
+	@Test
+	void clientTooFarBehindOrFromAnotherRunIsToldToResync() throws Exception {
+		String lastEventId;
+		try (EventReader events = connect(null)) {
+			lastEventId = events.next().id();
+		}
+		for (long id = 1; id <= 5; id++) {
+			productChangeFeed.publish(ProductChange.Type.UPDATED, id, product(id, "Produto " + id));
+		}
+
+		try (EventReader events = connect(lastEventId)) {
+			Event resync = events.next();
+			assertThat(resync.name()).isEqualTo("resync");
+			assertThat(sequence(resync.id())).isEqualTo(sequence(lastEventId) + 5);
+		}
+		try (EventReader events = connect("earlier-run-" + sequence(lastEventId))) {
+			assertThat(events.next().name()).isEqualTo("resync");
+		}
+	}
+
+	@Test
+	void clientThatStopsReadingIsDroppedWithoutDelayingTheOthers() throws Exception {
+		try (EventReader events = connect(null); Socket stalled = new Socket()) {
+			assertThat(events.next().name()).isEqualTo("ready");
+			stalled.setReceiveBufferSize(1024);
+			stalled.connect(new InetSocketAddress("localhost", port));
+			stalled.getOutputStream().write(("GET /api/products/changes HTTP/1.1\r\nHost: localhost\r\n"
+					+ "Accept: text/event-stream\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+			stalled.getOutputStream().flush();
+
+			// Eventos grandes enchem os buffers de TCP do cliente parado; a partir daí a fila dele enche e ele é desconectado.
+			// Cada evento é lido pelo outro cliente antes do próximo, o que não aconteceria se o envio ao parado bloqueasse o feed.
+			String description = "x".repeat(64 * 1024);
+			for (long id = 1; id <= 400; id++) {
+				productChangeFeed.publish(ProductChange.Type.UPDATED, id,
+						new ProductDTO(id, "Produto " + id, BigDecimal.ONE, description, "/api/products/" + id + "/image", 1L));
+				Event event = events.next();
+				assertThat(event.name()).isEqualTo("updated");
+				assertThat(objectMapper.readTree(event.data()).get("id").asLong()).isEqualTo(id);
+			}
+
+			stalled.setSoTimeout(10_000);
+			InputStream response = stalled.getInputStream();
+			byte[] buffer = new byte[64 * 1024];
+			while (response.read(buffer) != -1) {
+				// O servidor encerra a resposta do cliente desconectado; basta ler até o fim
+			}
+		}
+	}
+
+	private static ProductDTO product(Long id, String name) {
+		return new ProductDTO(id, name, BigDecimal.ONE, "Descrição", "/api/products/" + id + "/image", 1L);
+	}
+
+	private static long sequence(String eventId) {
+		return Long.parseLong(eventId.substring(eventId.lastIndexOf('-') + 1));
+	}
+
+	private EventReader connect(String lastEventId) throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/changes"))
+				.header("Accept", "text/event-stream");
+		if (lastEventId != null) {
+			request.header("Last-Event-ID", lastEventId);
+		}
+		HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+		assertThat(response.statusCode()).isEqualTo(200);
+		return new EventReader(response.body());
+	}
+
+	private record Event(String id, String name, String data) {
+	}
+
+	/**
+	 * Lê os eventos no formato text/event-stream, ignorando comentários.
+	 */
+	private static final class EventReader implements AutoCloseable {
+
+		private final BufferedReader reader;
+
+		private EventReader(InputStream body) {
+			this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+		}
+
+		Event next() throws IOException {
+			String id = null;
+			String name = null;
+			StringBuilder data = new StringBuilder();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty()) {
+					if (name != null) {
+						return new Event(id, name, data.toString());
+					}
+				} else if (line.startsWith("id:")) {
+					id = line.substring(3);
+				} else if (line.startsWith("event:")) {
+					name = line.substring(6);
+				} else if (line.startsWith("data:")) {
+					data.append(line.substring(5));
+				}
+			}
+			throw new IOException("Change feed closed");
+		}
+
+		@Override
+		public void close() throws IOException {
+			reader.close();
+		}
+	}
+}
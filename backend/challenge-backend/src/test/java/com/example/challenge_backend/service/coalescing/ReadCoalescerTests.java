@@ -0,0 +1,106 @@
+package com.example.challenge_backend.service.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReadCoalescerTests {
+
+	private static final int CALLERS = 8;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentIdenticalReadsShareOneLoad() throws Exception {
+		ReadCoalescer coalescer = new ReadCoalescer(Duration.ZERO, meterRegistry);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		Object value = new Object();
+
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(executor.submit(() -> call(coalescer, "findById", 1L, () -> {
+					loads.incrementAndGet();
+					release.await();
+					return value;
+				})));
+			}
+			// Espera todos chegarem: o primeiro está preso na leitura e os demais esperando por ela
+			while (count("coalesced") + count("executed") < CALLERS) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+			for (Future<Object> result : results) {
+				assertSame(value, result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(1, count("executed"));
+		assertEquals(CALLERS - 1, count("coalesced"));
+	}
+
+	@Test
+	void differentArgumentsAreNotShared() throws Throwable {
+		ReadCoalescer coalescer = new ReadCoalescer(Duration.ofMinutes(1), meterRegistry);
+
+		assertEquals(1L, call(coalescer, "findById", 1L, () -> 1L));
+		assertEquals(2L, call(coalescer, "findById", 2L, () -> 2L));
+		assertEquals(2, count("executed"));
+	}
+
+	@Test
+	void resultIsSharedDuringTheWindowUntilInvalidated() throws Throwable {
+		ReadCoalescer coalescer = new ReadCoalescer(Duration.ofMinutes(1), meterRegistry);
+
+		assertEquals("first", call(coalescer, "findById", 1L, () -> "first"));
+		assertEquals("first", call(coalescer, "findById", 1L, () -> "second"));
+		coalescer.invalidateAll();
+		assertEquals("third", call(coalescer, "findById", 1L, () -> "third"));
+		assertEquals(1, count("coalesced"));
+	}
+
+	@Test
+	void failedReadIsNotKept() throws Throwable {
+		ReadCoalescer coalescer = new ReadCoalescer(Duration.ofMinutes(1), meterRegistry);
+
+		assertThrows(IllegalStateException.class, () -> call(coalescer, "findById", 1L, () -> {
+			throw new IllegalStateException("database down");
+		}));
+		assertEquals("ok", call(coalescer, "findById", 1L, () -> "ok"));
+		assertEquals(0, count("coalesced"));
+	}
+
+	private static Object call(ReadCoalescer coalescer, String operation, Object argument, ReadCoalescer.Loader loader) throws Exception {
+		try {
+			return coalescer.load(operation, List.of(argument), loader);
+		} catch (Exception | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private long count(String result) {
+		return (long) meterRegistry.find(ReadCoalescer.COUNTER).tag("result", result).counters().stream()
+				.mapToDouble(counter -> counter.count())
+				.sum();
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.challenge_backend.service.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTests {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex(null, null, 12);
+		index.add(1L, "Cadeira de Escritório", "Cadeira giratória com apoio para braços");
+		index.add(2L, "Mesa de jantar", "Mesa de madeira para seis cadeiras");
+		index.add(3L, "Luminária", "Luminária de mesa com ajuste de ângulo");
+	}
+
+	@Test
+	void matchesPrefixesIgnoringAccentsAndCase() {
+		assertEquals(List.of(1L), index.search("ESCRITO", 0, 10).ids());
+		assertEquals(List.of(3L), index.search("luminaria", 0, 10).ids());
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		SearchHits hits = index.search("mesa", 0, 10);
+
+		assertEquals(List.of(2L, 3L), hits.ids());
+		assertEquals(2, hits.total());
+	}
+
+	@Test
+	void requiresEveryTermAndIgnoresStopwords() {
+		assertEquals(List.of(1L), index.search("cadeira de escr", 0, 10).ids());
+		assertTrue(index.search("cadeira abajur", 0, 10).ids().isEmpty());
+	}
+
+	@Test
+	void paginatesRankedResults() {
+		SearchHits firstPage = index.search("cadeira", 0, 1);
+		SearchHits secondPage = index.search("cadeira", 1, 1);
+
+		assertEquals(List.of(1L), firstPage.ids());
+		assertEquals(List.of(2L), secondPage.ids());
+		assertEquals(2, secondPage.total());
+	}
+
+	@Test
+	void pagesPastTheEndAreEmptyEvenWhenOffsetOverflowsAnInt() {
+		SearchHits hits = index.search("cadeira", 21474837, 100);
+
+		assertTrue(hits.ids().isEmpty());
+		assertEquals(2, hits.total());
+	}
+
+	@Test
+	void keepsIndexInSyncWithUpdatesAndDeletes() {
+		index.update(3L, "Luminária", "Luminária de mesa com ajuste de ângulo", "Abajur", "Abajur de chão");
+		index.remove(2L, "Mesa de jantar", "Mesa de madeira para seis cadeiras");
+
+		assertTrue(index.search("luminaria", 0, 10).ids().isEmpty());
+		assertTrue(index.search("mesa", 0, 10).ids().isEmpty());
+		assertEquals(List.of(3L), index.search("abaj", 0, 10).ids());
+	}
+
+	@Test
+	void productAddedAfterADeleteDoesNotInheritItsTerms() {
+		index.remove(2L, "Mesa de jantar", "Mesa de madeira para seis cadeiras");
+		index.add(4L, "Sofá", "Sofá de três lugares");
+
+		assertEquals(List.of(3L), index.search("mesa", 0, 10).ids());
+		assertEquals(List.of(1L), index.search("cadeira", 0, 10).ids());
+		assertEquals(List.of(4L), index.search("sofa", 0, 10).ids());
+	}
+
+	/**
+	 * As duas palavras têm os mesmos 12 primeiros caracteres, o tamanho dos prefixos indexados.
+	 */
+	@Test
+	void termsLongerThanTheIndexedPrefixesAreMatchedInFull() {
+		index.add(4L, "Tratado de constitucionalidade", "Livro");
+		index.add(5L, "Manual constitucionalista", "Livro");
+
+		assertEquals(List.of(4L), index.search("constitucionalidade", 0, 10).ids());
+		assertEquals(List.of(4L, 5L), index.search("constitucionali", 0, 10).ids());
+		assertTrue(index.search("constitucionalidades", 0, 10).ids().isEmpty());
+
+		index.remove(4L, "Tratado de constitucionalidade", "Livro");
+		assertTrue(index.search("constitucionalidade", 0, 10).ids().isEmpty());
+		assertEquals(List.of(5L), index.search("constitucionali", 0, 10).ids());
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.challenge_backend.service.snapshot;
+
+import com.example.challenge_backend.ChallengeBackendApplication;
+import com.example.challenge_backend.config.CacheConfig;
+import com.example.challenge_backend.model.Product;
+import com.example.challenge_backend.repository.ProductRepository;
+import com.example.challenge_backend.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sobe a aplicação duas vezes, cada uma com o seu banco em memória: a primeira grava o snapshot ao ser encerrada
+ * e a segunda precisa começar com o mesmo catálogo, já no índice de busca e no cache.
+ */
+class CatalogSnapshotTests {
+
+	private static final int PRODUCTS = 120;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void restartedInstanceStartsWithTheSnapshotCatalog() throws Exception {
+		Path file = dir.resolve("catalog.snapshot");
+		long maxId;
+		try (ConfigurableApplicationContext context = start("snapshot-a", file)) {
+			List<Product> saved = context.getBean(ProductRepository.class).saveAll(IntStream.range(0, PRODUCTS)
+					.mapToObj(i -> new Product(null, "Cadeira " + i, new BigDecimal("10.50"), "Cadeira de madeira",
+							"a".repeat(64), 1L, i % 2 == 0 ? "image/png" : null, null))
+					.toList());
+			maxId = saved.get(saved.size() - 1).getId();
+		}
+		assertThat(file).exists();
+
+		try (ConfigurableApplicationContext context = start("snapshot-b", file)) {
+			ProductRepository repository = context.getBean(ProductRepository.class);
+			assertThat(repository.count()).isEqualTo(PRODUCTS);
+			Product first = repository.findById(1L).orElseThrow();
+			assertThat(first.getPrice()).isEqualByComparingTo("10.50");
+			assertThat(first.getImageContentType()).isEqualTo("image/png");
+			assertThat(repository.findById(2L).orElseThrow().getImageContentType()).isNull();
+
+			assertThat(context.getBean(ProductService.class).search("cadeira", 0, 10).getTotalElements()).isEqualTo(PRODUCTS);
+			assertThat(context.getBean(CacheManager.class).getCache(CacheConfig.PRODUCTS).get(1L)).isNotNull();
+
+			Product created = repository.save(new Product(null, "Mesa", BigDecimal.ONE, "Mesa", "b".repeat(64), 1L, "image/png", null));
+			assertThat(created.getId()).isGreaterThan(maxId);
+		}
+	}
+
+	@Test
+	void corruptSnapshotIsSetAside() throws Exception {
+		Path file = dir.resolve("catalog.snapshot");
+		Files.write(file, new byte[]{1, 2, 3});
+
+		try (ConfigurableApplicationContext context = start("snapshot-corrupt", file)) {
+			assertThat(context.getBean(ProductRepository.class).count()).isZero();
+		}
+		assertThat(dir.resolve("catalog.snapshot.rejected")).hasBinaryContent(new byte[]{1, 2, 3});
+	}
+
+	private ConfigurableApplicationContext start(String database, Path file) throws Exception {
+		// Como argumentos, e não como propriedades padrão, para prevalecer sobre o application.properties
+		return new SpringApplicationBuilder(ChallengeBackendApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:" + database,
+						"--app.images.storage-dir=" + Files.createTempDirectory(dir, "images"),
+						"--app.snapshot.enabled=true",
+						"--app.snapshot.file=" + file,
+						"--app.snapshot.interval=0s",
+						"--app.warmup.iterations=0");
+	}
+}
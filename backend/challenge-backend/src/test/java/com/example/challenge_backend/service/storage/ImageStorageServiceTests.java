@@ -0,0 +1,62 @@
+package com.example.challenge_backend.service.storage;
+
+import com.example.challenge_backend.dto.image.ImageDTO;
+import com.example.challenge_backend.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageStorageServiceTests {
+
+	private static final byte[] CONTENT = {1, 2, 3, 4};
+
+	@TempDir
+	Path root;
+
+	private ImageStorageService storage;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		storage = new ImageStorageService(root, 8192, DataSize.ofMegabytes(20), new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Outro produto deixou de usar a mesma imagem e, para o banco, ninguém mais a referencia:
+	 * o produto que acabou de gravá-la ainda não foi confirmado, e o arquivo tem de continuar no disco.
+	 */
+	@Test
+	void imageStoredByAnUncommittedProductIsNotDeleted() throws IOException {
+		ImageDTO image = storage.store(new ByteArrayInputStream(CONTENT), "image/png");
+
+		assertFalse(storage.deleteIfUnused(image.hash(), hash -> false));
+		assertArrayEquals(CONTENT, storage.load(image.hash()).getContentAsByteArray());
+
+		storage.release(image.hash());
+		assertTrue(storage.deleteIfUnused(image.hash(), hash -> false));
+		assertThrows(ResourceNotFoundException.class, () -> storage.load(image.hash()));
+	}
+
+	@Test
+	void imageIsKeptUntilEveryStoreIsReleased() throws IOException {
+		ImageDTO first = storage.store(new ByteArrayInputStream(CONTENT), "image/png");
+		ImageDTO second = storage.store(new ByteArrayInputStream(CONTENT), "image/png");
+
+		storage.release(first.hash());
+		assertFalse(storage.deleteIfUnused(second.hash(), hash -> false));
+
+		storage.release(second.hash());
+		assertFalse(storage.deleteIfUnused(second.hash(), hash -> true));
+		assertTrue(storage.deleteIfUnused(second.hash(), hash -> false));
+	}
+}
@@ -0,0 +1,191 @@
+package com.example.challenge_backend.service.storage;
+
+import com.example.challenge_backend.dto.image.ImageDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantServiceTests {
+
+	@TempDir
+	Path root;
+
+	private ImageStorageService storage;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		storage = new ImageStorageService(root, 8192, DataSize.ofMegabytes(20), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void variantKeepsAspectRatioAndFormat() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofMegabytes(10));
+		ImageDTO image = store(800, 600, "png");
+
+		BufferedImage resized = read(awaitVariant(variants, image, 64));
+		assertEquals(64, resized.getWidth());
+		assertEquals(48, resized.getHeight());
+	}
+
+	@Test
+	void narrowOriginalHasNoVariant() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofMegabytes(10));
+		ImageDTO image = store(50, 50, "jpeg");
+
+		awaitOriginalOnly(variants, image, 64);
+		assertTrue(variants.variant(image.hash(), image.contentType(), 64).isEmpty());
+	}
+
+	@Test
+	void missServesTheOriginalWhileTheVariantIsGeneratedInBackground() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofMegabytes(10));
+		ImageDTO image = store(800, 600, "png");
+
+		// A requisição não decodifica a original: recebe vazio na hora, e a versão fica pronta depois
+		assertTrue(variants.variant(image.hash(), image.contentType(), 256).isEmpty());
+		assertFalse(variants.servesOriginal(image.hash(), 256));
+		assertEquals(256, read(awaitVariant(variants, image, 256)).getWidth());
+	}
+
+	@Test
+	void requestedWidthSnapsToNextConfiguredWidth() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofMegabytes(10));
+
+		assertEquals(OptionalInt.of(64), variants.widthFor(10));
+		assertEquals(OptionalInt.of(256), variants.widthFor(65));
+		assertEquals(OptionalInt.empty(), variants.widthFor(257));
+	}
+
+	@Test
+	void leastRecentlyUsedVariantIsEvictedWhenCacheIsFull() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofBytes(1), List.of(256));
+		ImageDTO first = store(800, 600, "jpeg");
+		ImageDTO second = store(800, 600, "jpeg");
+
+		Resource firstVariant = awaitVariant(variants, first, 256);
+		Resource secondVariant = awaitVariant(variants, second, 256);
+
+		assertFalse(firstVariant.exists());
+		assertTrue(secondVariant.exists());
+	}
+
+	@Test
+	void originalDeclaringTooManyPixelsIsNotDecoded() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofMegabytes(10));
+		ImageDTO image = storage.store(new ByteArrayInputStream(pngHeader(50_000, 50_000)), "image/png");
+
+		awaitOriginalOnly(variants, image, 64);
+		awaitOriginalOnly(variants, image, 256);
+	}
+
+	@Test
+	void deleteRemovesVariants() throws IOException {
+		ImageVariantService variants = variants(DataSize.ofMegabytes(10));
+		ImageDTO image = store(800, 600, "png");
+		Resource variant = awaitVariant(variants, image, 256);
+
+		variants.delete(image.hash());
+
+		assertFalse(variant.exists());
+	}
+
+	private ImageVariantService variants(DataSize maxSize) throws IOException {
+		return variants(maxSize, List.of(64, 256));
+	}
+
+	private ImageVariantService variants(DataSize maxSize, List<Integer> widths) throws IOException {
+		return new ImageVariantService(storage, root, widths, maxSize, 1_000_000, 1, 10);
+	}
+
+	/**
+	 * Pede a versão até a geração em segundo plano terminar.
+	 */
+	private static Resource awaitVariant(ImageVariantService variants, ImageDTO image, int width) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			Optional<Resource> variant = variants.variant(image.hash(), image.contentType(), width);
+			if (variant.isPresent()) {
+				return variant.get();
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		throw new AssertionError("Variant " + width + " of image " + image.hash() + " was not generated");
+	}
+
+	/**
+	 * Pede a versão até a geração em segundo plano concluir que a original é a resposta definitiva.
+	 */
+	private static void awaitOriginalOnly(ImageVariantService variants, ImageDTO image, int width) {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			assertTrue(variants.variant(image.hash(), image.contentType(), width).isEmpty());
+			if (variants.servesOriginal(image.hash(), width)) {
+				return;
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+		}
+		throw new AssertionError("Variant " + width + " of image " + image.hash() + " was not resolved to the original");
+	}
+
+	/**
+	 * Um PNG com apenas a assinatura e o cabeçalho IHDR, que declara as dimensões sem trazer os pixels.
+	 */
+	private static byte[] pngHeader(int width, int height) {
+		ByteBuffer ihdr = ByteBuffer.allocate(17)
+				.put("IHDR".getBytes(StandardCharsets.US_ASCII))
+				.putInt(width)
+				.putInt(height)
+				.put(new byte[]{8, 2, 0, 0, 0});
+		CRC32 crc = new CRC32();
+		crc.update(ihdr.array());
+		return ByteBuffer.allocate(8 + 4 + 17 + 4)
+				.put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'})
+				.putInt(13)
+				.put(ihdr.array())
+				.putInt((int) crc.getValue())
+				.array();
+	}
+
+	private ImageDTO store(int width, int height, String format) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(System.nanoTime());
+		for (int y = 0; y < height; y += 10) {
+			for (int x = 0; x < width; x += 10) {
+				image.setRGB(x, y, random.nextInt());
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, format, out);
+		return storage.store(new ByteArrayInputStream(out.toByteArray()), "image/" + format);
+	}
+
+	private static BufferedImage read(Resource resource) throws IOException {
+		try (InputStream in = resource.getInputStream()) {
+			return ImageIO.read(in);
+		}
+	}
+}
@@ -16,6 +16,7 @@ import { ProductService } from "../../../core/services/product/product.service";
 import { Product } from "../../../shared/interfaces/product.interface";
 import { Observable } from "rxjs";
 import { NotificationService } from "../../../core/services/notification/notification.service";
+import { environment } from "../../../../environments/environment";
 
 @Component({
   selector: 'app-product-form',
@@ -82,7 +83,7 @@ export class ProductFormComponent implements OnInit {
       name: [this.data.product?.name || '', [Validators.required, Validators.minLength(3)]],
       description: [this.data.product?.description || '', Validators.required],
       price: [this.data.product?.price || 0.01, [Validators.required, Validators.min(0)]],
-      image: [this.data.product?.image || null, Validators.required]
+      image: [this.data.product?.imageUrl || null, Validators.required]
     });
   }
 
@@ -91,8 +92,8 @@ export class ProductFormComponent implements OnInit {
    * @private
    */
   private setImageSrc(): void {
-    if (this.data.product?.image) {
-      this.imageSrc = this.data.product.image;
+    if (this.data.product?.imageUrl) {
+      this.imageSrc = environment.baseUrl + this.data.product.imageUrl + '&w=256';
     }
   }
 
@@ -183,19 +184,21 @@ export class ProductFormComponent implements OnInit {
     if (this.data.product) formValue.id = this.data.product.id;
 
     const formData = new FormData();
-    formData.append('name', formValue.name);
-    formData.append('description', formValue.description);
-    formData.append('price', formValue.price.toString());
+    const product: Product | undefined = this.data.product;
+    // Na edição, só os campos alterados são enviados, e o backend grava apenas essas colunas
+    if (!product || formValue.name !== product.name) {
+      formData.append('name', formValue.name);
+    }
+    if (!product || formValue.description !== product.description) {
+      formData.append('description', formValue.description);
+    }
+    if (!product || formValue.price !== product.price) {
+      formData.append('price', formValue.price.toString());
+    }
 
+    // Sem um novo arquivo, a imagem não é reenviada e o backend mantém a atual
     if (this.selectedFile) {
       formData.append('image', this.selectedFile);
-    } else if (this.isEditMode && this.data.product?.image) {
-      formData.append('image', this.data.product.image);
-    }
-
-    if (formValue.id) {
-      formData.append('id', formValue.id.toString());
-      console.log('id', formValue.id);
     }
 
     return formData;
@@ -219,8 +222,7 @@ export class ProductFormComponent implements OnInit {
    * @private
    */
   private updateExistingProduct(formData: FormData): Observable<any> {
-    const productId = this.data.product.id;
-    return this.productService.updateProduct(productId, formData);
+    return this.productService.patchProduct(this.data.product, formData);
   }
   /**
    * Cria um novo produto
@@ -1,16 +1,17 @@
-import {Component, ViewChild, OnInit} from '@angular/core';
+import {Component, ViewChild, OnInit, OnDestroy} from '@angular/core';
 import {MatTableDataSource, MatTableModule} from "@angular/material/table";
 import {MatButtonModule} from "@angular/material/button";
 import {MatPaginator, MatPaginatorModule, PageEvent} from "@angular/material/paginator";
 import {MatInputModule} from '@angular/material/input';
 import {ProductService} from "../../../core/services/product/product.service";
-import {Product} from "../../../shared/interfaces/product.interface";
+import {Product, ProductChange} from "../../../shared/interfaces/product.interface";
 import {MatDialog} from "@angular/material/dialog";
 import {ProductFormComponent} from "../product-form/product-form.component";
 import {SearchComponent} from "../../../shared/components/search/search.component";
 import {ButtonComponent} from "../../../shared/components/button/button.component";
 import {TableComponent} from "../../../shared/components/table/table.component";
 import {PaginatorComponent} from "../../../shared/components/paginator/paginator.component";
+import {Subscription} from "rxjs";
 
 @Component({
   selector: 'app-product-list',
@@ -30,11 +31,11 @@ import {PaginatorComponent} from "../../../shared/components/paginator/paginator
 })
 /**
  * @class ProductListComponent
- * @implements {OnInit}
+ * @implements {OnInit, OnDestroy}
  * @description
  * Componente que lista os produtos
  */
-export class ProductListComponent implements OnInit {
+export class ProductListComponent implements OnInit, OnDestroy {
   /**
    * @type {MatTableDataSource<Product>}
    * @description
@@ -55,6 +56,34 @@ export class ProductListComponent implements OnInit {
    */
   @ViewChild(MatPaginator) paginator!: MatPaginator;
 
+  /**
+   * @type {number}
+   * @description
+   * Página exibida, recarregada quando o feed de alterações pede um resync
+   */
+  page: number = 0;
+
+  /**
+   * @type {number}
+   * @description
+   * Tamanho da página exibida
+   */
+  size: number = 10;
+
+  /**
+   * @type {boolean}
+   * @description
+   * Indica se a tabela mostra o resultado de uma busca, e não uma página da listagem
+   */
+  searching: boolean = false;
+
+  /**
+   * @type {Subscription}
+   * @description
+   * Inscrição no feed de alterações dos produtos
+   */
+  private changes?: Subscription;
+
 
   constructor(
     private productService: ProductService,
@@ -68,6 +97,16 @@ export class ProductListComponent implements OnInit {
    */
   ngOnInit() {
     this.bringProducts();
+    this.changes = this.productService.productChanges().subscribe(change => this.applyChange(change));
+  }
+
+  /**
+   * @method ngOnDestroy
+   * @description
+   * Fecha a conexão com o feed de alterações
+   */
+  ngOnDestroy() {
+    this.changes?.unsubscribe();
   }
 
   /**
@@ -78,6 +117,9 @@ export class ProductListComponent implements OnInit {
    * Método que busca os produtos
    */
   bringProducts(page: number = 0, size: number = 10) {
+    this.page = page;
+    this.size = size;
+    this.searching = false;
     this.productService.getProducts(page, size).subscribe(
       (data: any) => {
         this.products.data = data.content;
@@ -109,8 +151,9 @@ export class ProductListComponent implements OnInit {
     const query = input.value;
 
     if (query) {
-      this.productService.searchProductByName(query).subscribe(products => {
-        this.products.data = products;
+      this.searching = true;
+      this.productService.searchProductByName(query).subscribe(result => {
+        this.products.data = result.content;
       });
     } else {
       this.bringProducts();
@@ -123,11 +166,40 @@ export class ProductListComponent implements OnInit {
       data: {}
     });
 
-    dialogRef.afterClosed().subscribe(result => {
-      if (result) {
-        this.bringProducts();
+    dialogRef.afterClosed().subscribe();
+  }
+
+  /**
+   * @method applyChange
+   * @param {ProductChange} change
+   * @description
+   * Aplica na página exibida uma alteração recebida do feed, sem buscar a página de novo.
+   * Produtos alterados são substituídos e removidos saem da tabela; um produto criado entra se, pela ordem por nome,
+   * cair dentro da página. Um resync recarrega a página atual.
+   */
+  applyChange(change: ProductChange) {
+    if (change.type === 'resync') {
+      if (!this.searching) {
+        this.bringProducts(this.page, this.size);
       }
-    });
+      return;
+    }
+
+    const rows = this.products.data;
+    if (change.type === 'deleted') {
+      this.products.data = rows.filter(product => product.id !== change.id);
+    } else if (change.type === 'updated' && change.product) {
+      const updated = change.product;
+      this.products.data = rows.map(product => product.id === updated.id ? updated : product);
+    } else if (change.type === 'created' && change.product && !this.searching) {
+      const created = change.product;
+      const last = rows[rows.length - 1];
+      if (rows.length < this.size || (last && created.name < last.name)) {
+        this.products.data = [...rows, created]
+          .sort((a, b) => a.name < b.name ? -1 : a.name > b.name ? 1 : a.id - b.id)
+          .slice(0, this.size);
+      }
+    }
   }
 
 
@@ -3,7 +3,7 @@ import { HttpClient } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError, tap } from 'rxjs/operators';
 import { environment } from '../../../../environments/environment';
-import { Product } from '../../../shared/interfaces/product.interface';
+import { Product, ProductChange } from '../../../shared/interfaces/product.interface';
 import { NotificationService } from '../notification/notification.service';
 
 /**
@@ -92,6 +92,31 @@ export class ProductService {
     );
   }
 
+  /**
+   * Método responsável por alterar parcialmente um produto.
+   * Apenas os campos presentes no formulário são gravados; o If-Match leva a versão lida,
+   * e o backend recusa a alteração se o produto tiver mudado desde então.
+   * @param product o produto como foi lido
+   * @param formData os campos alterados e, opcionalmente, a nova imagem
+   * @returns Observable<Product>
+   *   Observable com o produto alterado.
+   *   Caso ocorra um erro, retorna um Observable com o erro.
+   *   Em ambos os casos, exibe uma notificação.
+   */
+  patchProduct(product: Product, formData: FormData): Observable<any> {
+    const headers = { 'If-Match': `"${product.id}-${product.version}"` };
+    return this.http.patch(`${this.url}/products/${product.id}`, formData, { headers }).pipe(
+      tap(() => this.notificationService.showSuccess('Produto atualizado com sucesso')),
+      catchError(error => {
+        const errorMessage = error.status === 412 || error.status === 409
+          ? 'O produto foi alterado por outra pessoa. Recarregue a lista e tente novamente.'
+          : `Falha ao atualizar produto: ${error.status} - ${error.message}`;
+        this.notificationService.showError(errorMessage);
+        return throwError(errorMessage);
+      })
+    );
+  }
+
   /**
    * Método responsável por deletar um produto.
    * @param id
@@ -130,14 +155,16 @@ export class ProductService {
   }
 
   /**
-   * Método responsável por buscar um produto pelo nome.
+   * Método responsável por buscar produtos pelo nome ou descrição.
    * @param name
-   * @returns Observable<Product[]>
-   *   Observable com a lista de produtos buscados.
+   * @param page
+   * @param size
+   * @returns Observable<{ content: Product[], totalElements: number}>
+   *   Observable com a página de produtos buscados, ordenados por relevância.
    *   Caso ocorra um erro, retorna um Observable com o erro.
    */
-  searchProductByName(name: string): Observable<Product[]> {
-    return this.http.get<Product[]>(`${this.url}/products/search`, { params: { query: name } }).pipe(
+  searchProductByName(name: string, page: number = 0, size: number = 10): Observable<{ content: Product[], totalElements: number}> {
+    return this.http.get<{ content: Product[], totalElements: number}>(`${this.url}/products/search`, { params: { query: name, page, size } }).pipe(
       catchError(error => {
         const errorMessage = `Erro ao buscar produtos pelo nome: ${error.status} - ${error.message}`;
         this.notificationService.showError(errorMessage);
@@ -145,4 +172,27 @@ export class ProductService {
       })
     );
   }
+
+  /**
+   * Método responsável por acompanhar as alterações dos produtos.
+   * Abre o feed de alterações do backend (Server-Sent Events). O navegador reconecta sozinho e envia o último id recebido,
+   * então só as alterações perdidas são reenviadas; se forem muitas, chega um evento resync.
+   * @returns Observable<ProductChange>
+   *   Observable com cada alteração. A conexão é fechada quando a inscrição é cancelada.
+   *   Na renderização no servidor, onde não há EventSource, não emite nada.
+   */
+  productChanges(): Observable<ProductChange> {
+    return new Observable<ProductChange>(subscriber => {
+      if (typeof EventSource === 'undefined') {
+        return;
+      }
+      const source = new EventSource(`${this.url}/products/changes`);
+      const types: ProductChange['type'][] = ['created', 'updated', 'deleted', 'resync'];
+      types.forEach(type => source.addEventListener(type, event => {
+        const data = JSON.parse((event as MessageEvent).data);
+        subscriber.next({ type, id: data.id ?? null, product: data.product ?? null });
+      }));
+      return () => source.close();
+    });
+  }
 }
@@ -14,6 +14,7 @@ import {ProductService} from "../../../core/services/product/product.service";
 import {ProductFormComponent} from "../../../components/products/product-form/product-form.component";
 import {MatDialog} from "@angular/material/dialog";
 import {MatIcon, MatIconModule} from "@angular/material/icon";
+import {environment} from "../../../../environments/environment";
 
 @Component({
   selector: 'app-table',
@@ -55,6 +56,13 @@ export class TableComponent {
    */
   displayedColumns: string[] = ['image', 'id', 'name', 'description', 'price', 'options'];
 
+  /**
+   * Endereço base do backend, usado para montar a URL das imagens
+   * @memberof TableComponent
+   * @type {string}
+   */
+  imageBaseUrl: string = environment.baseUrl;
+
   constructor(
     private productService: ProductService,
     public dialog: MatDialog
@@ -82,15 +90,8 @@ export class TableComponent {
         data: { product: fetchedProduct }
       });
 
-      dialogRef.afterClosed().subscribe(result => {
-        if (result) {
-          const page = 0
-          const size = 10
-          this.productService.getProducts(page, size).subscribe(response => {
-            this.dataSource.data = response.content;
-          });
-        }
-      });
+      // A linha alterada chega pelo feed de alterações, acompanhado pela listagem
+      dialogRef.afterClosed().subscribe();
     });
   }
 
@@ -3,5 +3,17 @@ export interface Product {
   name: string;
   description: string;
   price: number;
-  image: Blob;
+  imageUrl: string;
+  version: number;
+}
+
+/**
+ * Alteração de produto recebida pelo feed de alterações do backend.
+ * Em created e updated, product traz o produto já alterado; em deleted, só o id.
+ * resync indica que a listagem precisa ser recarregada por inteiro.
+ */
+export interface ProductChange {
+  type: 'created' | 'updated' | 'deleted' | 'resync';
+  id: number | null;
+  product: Product | null;
 }